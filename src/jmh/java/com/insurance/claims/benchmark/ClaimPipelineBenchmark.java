@@ -0,0 +1,136 @@
+package com.insurance.claims.benchmark;
+
+import com.insurance.claims.config.PipelineExecutorConfig;
+import com.insurance.claims.dto.ExtractedFields;
+import com.insurance.claims.service.DocumentParserService;
+import com.insurance.claims.service.FieldExtractionService;
+import com.insurance.claims.service.FraudKeywordService;
+import com.insurance.claims.service.RoutingService;
+import com.insurance.claims.service.ValidationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks each stage of the claim pipeline (parse, extract, validate, route)
+ * separately and end to end.
+ *
+ * Run from the project root so the sample documents resolve:
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="ClaimPipelineBenchmark.extract -p document=pdf-100 -prof gc"
+ * </pre>
+ * Throughput, average latency and (with {@code -prof gc}) gc.alloc.rate.norm are
+ * reported per document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClaimPipelineBenchmark {
+
+    /**
+     * Sample file name from sample-documents, or pdf-N for a generated N-page PDF
+     */
+    @Param({
+        "fnol-fasttrack.txt",
+        "fnol-high-value.txt",
+        "fnol-investigation.txt",
+        "fnol-manual-review.txt",
+        "fnol-specialist.txt",
+        "pdf-1",
+        "pdf-10",
+        "pdf-100"
+    })
+    public String document;
+
+    private AnnotationConfigApplicationContext context;
+    private DocumentParserService documentParserService;
+    private FieldExtractionService fieldExtractionService;
+    private ValidationService validationService;
+    private RoutingService routingService;
+
+    private MockMultipartFile file;
+    private String rawText;
+    private ExtractedFields extractedFields;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = new AnnotationConfigApplicationContext(
+            PipelineExecutorConfig.class,
+            DocumentParserService.class,
+            FieldExtractionService.class,
+            ValidationService.class,
+            FraudKeywordService.class,
+            RoutingService.class
+        );
+        documentParserService = context.getBean(DocumentParserService.class);
+        fieldExtractionService = context.getBean(FieldExtractionService.class);
+        validationService = context.getBean(ValidationService.class);
+        routingService = context.getBean(RoutingService.class);
+
+        if (document.startsWith("pdf-")) {
+            int pages = Integer.parseInt(document.substring("pdf-".length()));
+            file = new MockMultipartFile("file", "synthetic-" + pages + ".pdf",
+                "application/pdf", SyntheticFnolDocuments.generatePdf(pages));
+        } else {
+            file = new MockMultipartFile("file", document,
+                "text/plain", SyntheticFnolDocuments.loadSample(document));
+        }
+
+        rawText = documentParserService.parseDocument(file);
+        extractedFields = fieldExtractionService.extractFields(rawText);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String parse() throws IOException {
+        return documentParserService.parseDocument(file);
+    }
+
+    @Benchmark
+    public ExtractedFields extract() {
+        return fieldExtractionService.extractFields(rawText);
+    }
+
+    @Benchmark
+    public List<String> validate() {
+        return validationService.identifyMissingFields(extractedFields);
+    }
+
+    @Benchmark
+    public RoutingService.RoutingDecision route() {
+        return routingService.determineRoute(extractedFields);
+    }
+
+    @Benchmark
+    public RoutingService.RoutingDecision endToEnd() throws IOException {
+        String text = documentParserService.parseDocument(file);
+        ExtractedFields fields = fieldExtractionService.extractFields(text);
+        int missingFields = validationService.findMissingFields(fields);
+        validationService.toFieldNames(missingFields);
+        return routingService.determineRoute(fields, missingFields);
+    }
+}
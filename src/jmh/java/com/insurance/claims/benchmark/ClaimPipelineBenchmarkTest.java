@@ -0,0 +1,44 @@
+package com.insurance.claims.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs every ClaimPipelineBenchmark once, in process and without warm-up, so a
+ * benchmark whose setUp no longer works fails the build instead of the next
+ * measurement. Equivalent to {@code -f 0 -wi 0 -i 1}; runs with
+ * {@code mvn -Pjmh test}.
+ */
+class ClaimPipelineBenchmarkTest {
+
+    @Test
+    void benchmarksRun() throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ClaimPipelineBenchmark.class.getName() + "\\.")
+                .param("document", "fnol-fasttrack.txt", "pdf-1")
+                .mode(Mode.AverageTime)
+                .forks(0)
+                .warmupIterations(0)
+                .measurementIterations(1)
+                .measurementTime(TimeValue.milliseconds(100))
+                .shouldFailOnError(true)
+                .verbosity(VerboseMode.SILENT)
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        // parse, extract, validate, route and endToEnd for each document
+        assertEquals(10, results.size());
+    }
+}
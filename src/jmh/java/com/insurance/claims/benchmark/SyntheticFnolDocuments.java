@@ -0,0 +1,101 @@
+package com.insurance.claims.benchmark;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Loads the bundled sample FNOL documents and generates synthetic multi-page PDFs
+ * for the benchmarks
+ */
+public final class SyntheticFnolDocuments {
+
+    /**
+     * Directory holding the fnol-*.txt samples, relative to the project root
+     */
+    public static final String SAMPLES_DIR = System.getProperty("claims.samples.dir", "sample-documents");
+
+    private static final String[] FNOL_HEADER = {
+        "FIRST NOTICE OF LOSS (FNOL)",
+        "POLICY INFORMATION",
+        "Policy Number: POL-2025-004455",
+        "Policyholder Name: Ravi Kumar",
+        "Effective Date: 01/01/2025 to 01/01/2026",
+        "INCIDENT INFORMATION",
+        "Incident Date: 03/14/2025",
+        "Incident Time: 10:45 AM",
+        "Location: Banjara Hills Road No 12, Hyderabad, Telangana 500034",
+        "Description: Vehicle was rear-ended while waiting at a signal. Boot lid and bumper damaged.",
+        "INVOLVED PARTIES",
+        "Claimant Name: Ravi Kumar",
+        "Contact Details: Phone: 9876501234, Email: ravi.kumar@gmail.com",
+        "ASSET DETAILS",
+        "Asset Type: Vehicle",
+        "Asset ID: TS07AB1234",
+        "Estimated Damage: $18,500.00",
+        "CLAIM INFORMATION",
+        "Claim Type: property",
+        "Initial Estimate: $18,500.00",
+        "Attachments: photos_rear.jpg, police_report.pdf"
+    };
+
+    private static final String[] ATTACHMENT_LINES = {
+        "POLICE REPORT - CONTINUATION",
+        "The reporting officer arrived at the scene shortly after the collision was reported.",
+        "Both drivers were present and provided statements regarding the sequence of events.",
+        "Road surface was dry and visibility was good at the time of the incident.",
+        "No injuries were reported by either party and no ambulance was requested.",
+        "Photographs of both vehicles were taken and attached to this report for reference.",
+        "The following vehicle was found to have been following too closely to stop in time.",
+        "Both parties exchanged insurance details in the presence of the reporting officer."
+    };
+
+    private SyntheticFnolDocuments() {
+    }
+
+    public static byte[] loadSample(String filename) throws IOException {
+        return Files.readAllBytes(Paths.get(SAMPLES_DIR, filename));
+    }
+
+    /**
+     * Generate a PDF whose first page carries the FNOL header fields and whose
+     * remaining pages simulate an attached police report
+     */
+    public static byte[] generatePdf(int pages) throws IOException {
+        try (PDDocument document = new PDDocument();
+             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+
+            for (int pageNumber = 1; pageNumber <= pages; pageNumber++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+
+                String[] lines = pageNumber == 1 ? FNOL_HEADER : ATTACHMENT_LINES;
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(font, 10);
+                    content.setLeading(14);
+                    content.newLineAtOffset(50, 740);
+                    int repeat = pageNumber == 1 ? 1 : 6;
+                    for (int r = 0; r < repeat; r++) {
+                        for (String line : lines) {
+                            content.showText(line);
+                            content.newLine();
+                        }
+                    }
+                    content.endText();
+                }
+            }
+
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.insurance.claims.config;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.insurance.claims.dto.ClaimExtractionResult;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Response encodings for API clients.
+ *
+ * JSON is indented (spring.jackson.serialization.indent-output) unless the request
+ * has pretty=false. Clients can also ask for CBOR (application/cbor) or Smile
+ * (application/x-jackson-smile) with the Accept header; both mappers are built from
+ * the same Jackson configuration as the JSON one.
+ */
+@Configuration
+public class JacksonConfig {
+
+    public static final String PRETTY_PARAMETER = "pretty";
+
+    /**
+     * Serialize every ClaimExtractionResult property unless a request selects fields
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer claimResultFilterCustomizer() {
+        return builder -> builder.filters(new SimpleFilterProvider()
+                .addFilter(ClaimExtractionResult.FIELDS_FILTER, SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected ObjectWriter customizeWriter(ObjectWriter writer, JavaType javaType, MediaType contentType) {
+                return isCompactRequested() ? writer.without(SerializationFeature.INDENT_OUTPUT) : writer;
+            }
+        };
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(
+                builder.factory(new CBORFactory()).indentOutput(false).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(
+                builder.factory(new SmileFactory()).indentOutput(false).build());
+    }
+
+    /**
+     * Whether the current request asked for unindented output with pretty=false
+     */
+    public static boolean isCompactRequested() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        return request instanceof ServletRequestAttributes servletRequest
+                && "false".equalsIgnoreCase(servletRequest.getRequest().getParameter(PRETTY_PARAMETER));
+    }
+}
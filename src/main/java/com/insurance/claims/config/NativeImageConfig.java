@@ -0,0 +1,64 @@
+package com.insurance.claims.config;
+
+import com.insurance.claims.dto.BatchItemResult;
+import com.insurance.claims.dto.BatchProcessingResult;
+import com.insurance.claims.dto.ClaimExtractionResult;
+import com.insurance.claims.dto.ClaimJob;
+import com.insurance.claims.dto.ClaimPage;
+import com.insurance.claims.dto.ExtractedFields;
+import com.insurance.claims.dto.ReplayReport;
+import com.insurance.claims.dto.RouteDiff;
+import com.insurance.claims.dto.RoutingOutcome;
+import com.insurance.claims.model.Claim;
+import com.insurance.claims.model.FraudKeyword;
+import com.insurance.claims.model.RoutingRule;
+import com.insurance.claims.model.StateFraudPenalty;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Reachability metadata for the native image build (mvn -Pnative native:compile).
+ *
+ * Spring AOT only derives binding hints for the request and response types declared
+ * in controller signatures. This adds the response bodies hidden behind
+ * ResponseEntity<?> and NDJSON streams, the types the services read and write with
+ * Jackson directly, and the classpath resources loaded at runtime, including the
+ * PDFBox/FontBox glyph lists, CMaps and standard 14 font metrics used when text is
+ * extracted from PDFs.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeImageConfig.ResourceHints.class)
+@RegisterReflectionForBinding({
+    ExtractedFields.class,
+    ClaimExtractionResult.class,
+    BatchItemResult.class,
+    BatchProcessingResult.class,
+    RoutingOutcome.class,
+    ReplayReport.class,
+    RouteDiff.class,
+    ClaimJob.class,
+    ClaimPage.class,
+    Claim.class,
+    StateFraudPenalty.class,
+    RoutingRule.class,
+    FraudKeyword.class
+})
+public class NativeImageConfig {
+
+    static class ResourceHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            hints.resources()
+                .registerPattern("fraud-keywords.json")
+                .registerPattern("fraud-penalties.json")
+                .registerPattern("routing-rules.json")
+                .registerPattern("schema.sql")
+                .registerPattern("org/apache/pdfbox/resources/*")
+                .registerPattern("org/apache/fontbox/*");
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.insurance.claims.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Worker pools that run the parse/extract/route pipeline for batch requests, run
+ * asynchronous claim jobs and strip page ranges of large PDFs in parallel.
+ * 
+ * With spring.threads.virtual.enabled=true on Java 21+ both run on virtual threads
+ * (as does Tomcat request handling); otherwise they use platform thread pools.
+ */
+@Configuration
+public class PipelineExecutorConfig {
+    
+    /**
+     * Bounded pool: once the queue is full the submitting thread runs the
+     * document itself, which throttles archive reading instead of growing the queue
+     */
+    @Bean(name = "claimPipelineExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public AsyncTaskExecutor claimPipelineExecutor(
+            @Value("${claims.pipeline.pool-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int poolSize,
+            @Value("${claims.pipeline.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("claim-pipeline-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+    
+    /**
+     * One virtual thread per document. The concurrency limit keeps the number of
+     * documents being parsed at once bounded: submitting blocks once it is reached,
+     * which throttles archive reading the same way the platform pool does.
+     */
+    @Bean(name = "claimPipelineExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public AsyncTaskExecutor virtualClaimPipelineExecutor(
+            @Value("${claims.pipeline.pool-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int poolSize) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("claim-pipeline-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(poolSize);
+        executor.setTaskTerminationTimeout(30_000);
+        return executor;
+    }
+    
+    /**
+     * Threads for the asynchronous job workers. Each worker takes jobs from the job
+     * queue one at a time, so the pool only needs one thread per worker.
+     */
+    @Bean(name = "claimJobExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public AsyncTaskExecutor claimJobExecutor(
+            @Value("${claims.jobs.workers:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setThreadNamePrefix("claim-job-");
+        return executor;
+    }
+    
+    @Bean(name = "claimJobExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public AsyncTaskExecutor virtualClaimJobExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("claim-job-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+    
+    /**
+     * Pool for page-range text stripping. Kept separate from the pipeline pool so a
+     * pipeline thread waiting for its page ranges can never starve them of workers.
+     */
+    @Bean(name = "pdfPageExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public AsyncTaskExecutor pdfPageExecutor(
+            @Value("${claims.pdf.parallel.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("pdf-pages-");
+        return executor;
+    }
+    
+    @Bean(name = "pdfPageExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public AsyncTaskExecutor virtualPdfPageExecutor(
+            @Value("${claims.pdf.parallel.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int threads) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("pdf-pages-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(threads);
+        return executor;
+    }
+}
@@ -0,0 +1,12 @@
+package com.insurance.claims.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled housekeeping tasks (e.g. purging finished claim jobs)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
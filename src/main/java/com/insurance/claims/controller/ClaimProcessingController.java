@@ -1,18 +1,47 @@
 package com.insurance.claims.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.insurance.claims.dto.BatchItemResult;
+import com.insurance.claims.dto.BatchProcessingResult;
 import com.insurance.claims.dto.ClaimExtractionResult;
+import com.insurance.claims.dto.ClaimJob;
 import com.insurance.claims.dto.ExtractedFields;
-import com.insurance.claims.service.DocumentParserService;
-import com.insurance.claims.service.FieldExtractionService;
-import com.insurance.claims.service.RoutingService;
-import com.insurance.claims.service.ValidationService;
+import com.insurance.claims.dto.ReplayReport;
+import com.insurance.claims.dto.ResultCacheStats;
+import com.insurance.claims.dto.RoutingOutcome;
+import com.insurance.claims.model.Claim;
+import com.insurance.claims.service.AdmissionControlService;
+import com.insurance.claims.service.BulkRoutingService;
+import com.insurance.claims.service.ClaimJobService;
+import com.insurance.claims.service.ClaimProcessingService;
+import com.insurance.claims.service.ClaimResultCache;
+import com.insurance.claims.service.ClaimStoreService;
+import com.insurance.claims.service.RoutingReplayService;
 import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * REST Controller for processing insurance claims (FNOL documents)
@@ -22,57 +51,314 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class ClaimProcessingController {
     
+    private static final String NDJSON = "application/x-ndjson";
+    
+    // ClaimExtractionResult properties that fields= can select
+    private static final Set<String> RESULT_FIELDS = Set.of(
+            "claimId", "extractedFields", "missingFields", "recommendedRoute", "reasoning", "routingRule");
+    
+    @Autowired
+    private ClaimProcessingService claimProcessingService;
+    
+    @Autowired
+    private AdmissionControlService admissionControlService;
+    
+    @Autowired
+    private BulkRoutingService bulkRoutingService;
+    
+    @Autowired
+    private ClaimJobService claimJobService;
+    
     @Autowired
-    private DocumentParserService documentParserService;
+    private ClaimResultCache claimResultCache;
     
     @Autowired
-    private FieldExtractionService fieldExtractionService;
+    private ClaimStoreService claimStoreService;
     
     @Autowired
-    private ValidationService validationService;
+    private RoutingReplayService routingReplayService;
     
     @Autowired
-    private RoutingService routingService;
+    private ObjectMapper objectMapper;
     
     /**
      * Process FNOL document and return extraction results with routing recommendation
      * 
      * @param file The FNOL document (PDF or TXT format)
+     * @param fields ClaimExtractionResult properties to return (optional, default all),
+     *               e.g. recommendedRoute,reasoning,missingFields
      * @return ClaimExtractionResult with extracted fields, missing fields, route, and reasoning
      */
     @PostMapping("/process")
-    public ResponseEntity<?> processClaimDocument(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<?> processClaimDocument(@RequestParam("file") MultipartFile file,
+                                                  @RequestParam(required = false) List<String> fields) {
+        AdmissionControlService.Permit permit = null;
         try {
-            // Step 1: Parse document to extract raw text
-            String rawText = documentParserService.parseDocument(file);
+            permit = admissionControlService.acquire(file.getOriginalFilename(), file.getSize());
+            checkFields(fields);
+            ClaimExtractionResult result = claimProcessingService.process(file);
+            return ResponseEntity.ok(selectFields(result, fields));
             
-            // Step 2: Extract structured fields from raw text
-            ExtractedFields extractedFields = fieldExtractionService.extractFields(rawText);
+        } catch (AdmissionControlService.RejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+                    .body("Error: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error processing document: " + e.getMessage());
+        } finally {
+            if (permit != null) {
+                permit.close();
+            }
+        }
+    }
+    
+    /**
+     * Process many FNOL documents in parallel on a bounded worker pool
+     * 
+     * @param files FNOL documents (PDF or TXT) and/or ZIP archives containing them
+     * @param fields ClaimExtractionResult properties to return for each document (optional, default all)
+     * @return BatchProcessingResult with one result or error per document
+     */
+    @PostMapping("/process/batch")
+    public ResponseEntity<?> processClaimBatch(@RequestParam("files") List<MultipartFile> files,
+                                               @RequestParam(required = false) List<String> fields) {
+        try {
+            checkFields(fields);
+            BatchProcessingResult result = claimProcessingService.processBatch(files);
+            return ResponseEntity.ok(selectFields(result, fields));
             
-            // Step 3: Identify missing mandatory fields
-            List<String> missingFields = validationService.identifyMissingFields(extractedFields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error processing batch: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Process a ZIP, TAR or TAR.GZ archive of FNOL documents sent as the request body,
+     * streaming one JSON result per line (NDJSON) as each document is routed.
+     * Neither the archive nor the result set is held in memory as a whole.
+     * 
+     * @param request Request whose body is the archive stream
+     * @return NDJSON stream of BatchItemResult, one line per document
+     */
+    @PostMapping(value = "/process/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> processClaimArchive(HttpServletRequest request) {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        
+        StreamingResponseBody body = out -> {
+            try {
+                claimProcessingService.processArchiveStream(request.getInputStream(), item -> {
+                    out.write(writer.writeValueAsBytes(item));
+                    out.write('\n');
+                    out.flush();
+                });
+            } catch (IllegalArgumentException e) {
+                // Headers are already sent, so report archive-level errors as a final line
+                BatchItemResult error = BatchItemResult.builder()
+                        .error(ClaimProcessingService.describeError(e))
+                        .build();
+                out.write(writer.writeValueAsBytes(error));
+                out.write('\n');
+            }
+        };
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+    
+    /**
+     * Route claims whose fields were already extracted, without parsing a document
+     * 
+     * @param claims JSON array of ExtractedFields
+     * @return JSON array with one RoutingOutcome per claim, in input order
+     */
+    @PostMapping(value = "/route", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> routeClaims(@RequestBody List<ExtractedFields> claims) {
+        try {
+            List<RoutingOutcome> outcomes = bulkRoutingService.route(claims);
+            // Not indented: large responses would otherwise be mostly whitespace
+            byte[] body = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT).writeValueAsBytes(outcomes);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(body);
             
-            // Step 4: Determine routing based on business rules
-            RoutingService.RoutingDecision decision = routingService.determineRoute(extractedFields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error routing claims: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Route a stream of claims given as one ExtractedFields JSON object per line (NDJSON),
+     * writing one RoutingOutcome per line in input order
+     * 
+     * @param request Request whose body is the NDJSON stream
+     * @return NDJSON stream of RoutingOutcome
+     */
+    @PostMapping(value = "/route", consumes = NDJSON, produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> routeClaimStream(HttpServletRequest request) {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        
+        StreamingResponseBody body = out -> {
+            try {
+                bulkRoutingService.routeStream(request.getInputStream(), outcomes -> {
+                    for (RoutingOutcome outcome : outcomes) {
+                        out.write(writer.writeValueAsBytes(outcome));
+                        out.write('\n');
+                    }
+                    out.flush();
+                });
+            } catch (IllegalArgumentException e) {
+                // Headers are already sent, so report input errors as a final line
+                out.write(writer.writeValueAsBytes(Map.of("error", "Error: " + e.getMessage())));
+                out.write('\n');
+            } catch (JsonProcessingException e) {
+                out.write(writer.writeValueAsBytes(Map.of("error", "Error: Invalid claim JSON: " + e.getOriginalMessage())));
+                out.write('\n');
+            }
+        };
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+    
+    /**
+     * What-if replay: route historical claims with the current and a candidate
+     * configuration and report how the routes would change
+     * 
+     * @param claims NDJSON file of ExtractedFields (optionally gzip-compressed)
+     * @param rules Candidate routing-rules.json (optional, defaults to the current rules)
+     * @param keywords Candidate fraud-keywords.json (optional, defaults to the current keywords)
+     * @param maxDiffs Maximum number of changed claims to list
+     * @return ReplayReport with route counts, route changes and diffs
+     */
+    @PostMapping("/routing/replay")
+    public ResponseEntity<?> replayRouting(@RequestParam("claims") MultipartFile claims,
+                                           @RequestParam(value = "rules", required = false) MultipartFile rules,
+                                           @RequestParam(value = "keywords", required = false) MultipartFile keywords,
+                                           @RequestParam(value = "maxDiffs", defaultValue = "100") int maxDiffs) {
+        try (InputStream in = claims.getInputStream()) {
+            ReplayReport report = routingReplayService.replay(in,
+                    rules == null ? null : rules.getResource(),
+                    keywords == null ? null : keywords.getResource(),
+                    maxDiffs);
+            return ResponseEntity.ok(report);
             
-            // Step 5: Build response
-            ClaimExtractionResult result = ClaimExtractionResult.builder()
-                    .extractedFields(extractedFields)
-                    .missingFields(missingFields)
-                    .recommendedRoute(decision.getRoute())
-                    .reasoning(decision.getReasoning())
-                    .build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.badRequest().body("Error: Invalid JSON: " + e.getOriginalMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error replaying claims: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Queue an FNOL document for asynchronous processing
+     * 
+     * @param file The FNOL document (PDF or TXT format)
+     * @return 202 Accepted with the pending job; poll its Location for the result
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitClaimJob(@RequestParam("file") MultipartFile file) {
+        try {
+            ClaimJob job = claimJobService.submit(file);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/claims/jobs/" + job.getJobId()))
+                    .body(job);
             
-            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error submitting document: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Status of an asynchronous job, including the ClaimExtractionResult once completed
+     * 
+     * @param jobId ID returned when the job was submitted
+     * @param fields ClaimExtractionResult properties to return in the result (optional, default all)
+     * @return ClaimJob, or 404 if the job is unknown or has been purged
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getClaimJob(@PathVariable String jobId,
+                                         @RequestParam(required = false) List<String> fields) {
+        try {
+            checkFields(fields);
+            return claimJobService.getJob(jobId)
+                    .<ResponseEntity<?>>map(job -> ResponseEntity.ok(selectFields(job, fields)))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
             
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error processing document: " + e.getMessage());
+                    .body("Error reading job: " + e.getMessage());
         }
     }
     
+    /**
+     * Get a stored claim
+     * 
+     * @param claimId ID returned in the processing result
+     * @return Claim, or 404 if it is not stored
+     */
+    @GetMapping("/records/{claimId}")
+    public ResponseEntity<Claim> getStoredClaim(@PathVariable String claimId) {
+        return claimStoreService.findById(claimId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Search stored claims, newest first. All filters are optional.
+     * 
+     * @param policyNumber Exact policy number
+     * @param route Exact recommended route
+     * @param incidentFrom First incident date (yyyy-MM-dd, inclusive)
+     * @param incidentTo Last incident date (yyyy-MM-dd, inclusive)
+     * @param page Page number, starting at 0
+     * @param size Page size (at most 100)
+     * @return ClaimPage
+     */
+    @GetMapping("/records")
+    public ResponseEntity<?> searchStoredClaims(
+            @RequestParam(required = false) String policyNumber,
+            @RequestParam(required = false) String route,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate incidentFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate incidentTo,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(claimStoreService.search(policyNumber, route, incidentFrom, incidentTo, page, size));
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Hit/miss statistics of the duplicate-submission result cache
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ResultCacheStats> getCacheStats() {
+        return ResponseEntity.ok(claimResultCache.stats());
+    }
+    
     /**
      * Health check endpoint
      */
@@ -80,5 +366,28 @@ public class ClaimProcessingController {
     public ResponseEntity<String> healthCheck() {
         return ResponseEntity.ok("Insurance Claims Processing Agent is running");
     }
+    
+    private static void checkFields(List<String> fields) {
+        if (fields == null) {
+            return;
+        }
+        for (String field : fields) {
+            if (!RESULT_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Unknown field: " + field + " (expected one of " + RESULT_FIELDS + ")");
+            }
+        }
+    }
+    
+    /**
+     * Restrict every ClaimExtractionResult in the response body to the requested properties
+     */
+    private static Object selectFields(Object body, List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return body;
+        }
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(new SimpleFilterProvider().addFilter(ClaimExtractionResult.FIELDS_FILTER,
+                SimpleBeanPropertyFilter.filterOutAllExcept(new HashSet<>(fields))));
+        return value;
+    }
 }
-
@@ -1,66 +1,118 @@
 package com.insurance.claims.controller;
 
-import com.insurance.claims.model.StateFraudPenalty;
+import com.insurance.claims.config.JacksonConfig;
 import com.insurance.claims.service.FraudPenaltyService;
+import com.insurance.claims.service.FraudPenaltyService.PrecomputedJson;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.Duration;
 
 /**
- * REST Controller for accessing state-specific fraud penalty information
+ * REST Controller for accessing state-specific fraud penalty information.
+ *
+ * JSON responses are served from the bytes FraudPenaltyService serialized when the
+ * penalties were loaded. Every response carries an ETag and Cache-Control max-age
+ * (claims.fraud.penalties-max-age); Spring answers a matching If-None-Match with 304.
  */
 @RestController
 @RequestMapping("/api/fraud-penalties")
 @CrossOrigin(origins = "*")
 public class FraudPenaltyController {
     
+    private static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+    
     @Autowired
     private FraudPenaltyService fraudPenaltyService;
     
+    @Value("${claims.fraud.penalties-max-age:5m}")
+    private Duration maxAge;
+    
     /**
      * Get fraud penalty information for a specific state
-     * 
-     * @param stateCode Two-letter state code (e.g., "CA", "NY")
+     *
+     * @param stateCode Two-letter state code (e.g., "CA", "NY"), in any case
      * @return StateFraudPenalty or 404 if not found
      */
     @GetMapping("/{stateCode}")
-    public ResponseEntity<?> getPenaltyByState(@PathVariable String stateCode) {
-        StateFraudPenalty penalty = fraudPenaltyService.getPenaltyByState(stateCode);
+    public ResponseEntity<?> getPenaltyByState(@PathVariable String stateCode,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        PrecomputedJson penalty = fraudPenaltyService.getPenaltyJson(stateCode);
         
         if (penalty == null) {
             return ResponseEntity.notFound().build();
         }
         
-        return ResponseEntity.ok(penalty);
+        return cacheable(penalty, accept);
     }
     
     /**
      * Get all fraud penalties for all states
      */
     @GetMapping
-    public ResponseEntity<List<StateFraudPenalty>> getAllPenalties() {
-        List<StateFraudPenalty> penalties = fraudPenaltyService.getAllPenalties();
-        return ResponseEntity.ok(penalties);
+    public ResponseEntity<?> getAllPenalties(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return cacheable(fraudPenaltyService.getAllPenaltiesJson(), accept);
     }
     
     /**
      * Check if a state has criminal penalties for fraud
      */
     @GetMapping("/{stateCode}/has-criminal")
-    public ResponseEntity<Boolean> hasCriminalPenalty(@PathVariable String stateCode) {
+    public ResponseEntity<?> hasCriminalPenalty(@PathVariable String stateCode,
+                                                @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         boolean hasCriminal = fraudPenaltyService.hasCriminalPenalty(stateCode);
-        return ResponseEntity.ok(hasCriminal);
+        return cacheable(hasCriminal ? FraudPenaltyService.TRUE : FraudPenaltyService.FALSE, accept);
     }
     
     /**
      * Check if a state has civil penalties for fraud
      */
     @GetMapping("/{stateCode}/has-civil")
-    public ResponseEntity<Boolean> hasCivilPenalty(@PathVariable String stateCode) {
+    public ResponseEntity<?> hasCivilPenalty(@PathVariable String stateCode,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         boolean hasCivil = fraudPenaltyService.hasCivilPenalty(stateCode);
-        return ResponseEntity.ok(hasCivil);
+        return cacheable(hasCivil ? FraudPenaltyService.TRUE : FraudPenaltyService.FALSE, accept);
+    }
+    
+    /**
+     * 200 with the precomputed JSON (or, for CBOR/Smile clients, the value to serialize)
+     * and caching headers
+     */
+    private ResponseEntity<?> cacheable(PrecomputedJson response, String accept) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(response.etag())
+                .cacheControl(CacheControl.maxAge(maxAge).cachePublic())
+                .varyBy(HttpHeaders.ACCEPT);
+        
+        if (acceptsBinary(accept)) {
+            return builder.body(response.value());
+        }
+        return builder.contentType(MediaType.APPLICATION_JSON)
+                .body(response.content(JacksonConfig.isCompactRequested()));
+    }
+    
+    /**
+     * Whether the client explicitly asks for CBOR or Smile
+     */
+    private static boolean acceptsBinary(String accept) {
+        if (accept == null) {
+            return false;
+        }
+        try {
+            for (MediaType type : MediaType.parseMediaTypes(accept)) {
+                if (type.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR) || type.equalsTypeAndSubtype(APPLICATION_SMILE)) {
+                    return true;
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            // Unparseable Accept headers get JSON
+        }
+        return false;
     }
 }
-
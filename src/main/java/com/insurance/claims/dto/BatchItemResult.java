@@ -0,0 +1,20 @@
+package com.insurance.claims.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO representing the outcome of one document in a batch.
+ * Exactly one of result or error is set.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResult {
+    private String filename;
+    private ClaimExtractionResult result;
+    private String error;
+}
@@ -0,0 +1,23 @@
+package com.insurance.claims.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO representing the output of batch claim processing.
+ * Results are in upload order, archive entries in archive order.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchProcessingResult {
+    private int totalDocuments;
+    private int processed;
+    private int failed;
+    private List<BatchItemResult> results;
+}
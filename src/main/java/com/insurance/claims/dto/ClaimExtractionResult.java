@@ -1,5 +1,6 @@
 package com.insurance.claims.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -11,20 +12,32 @@ import java.util.List;
  * DTO representing the output of claim processing
  * Matches the required JSON format:
  * {
+ *   "claimId": "",
  *   "extractedFields": {},
  *   "missingFields": [],
  *   "recommendedRoute": "",
- *   "reasoning": ""
+ *   "reasoning": "",
+ *   "routingRule": ""
  * }
+ * A fields= request parameter selects a subset of these properties (see FIELDS_FILTER).
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonFilter(ClaimExtractionResult.FIELDS_FILTER)
 public class ClaimExtractionResult {
+    
+    /**
+     * Jackson filter ID; serializes every property unless a response selects fields
+     */
+    public static final String FIELDS_FILTER = "claimExtractionResultFields";
+    
+    private String claimId;
     private ExtractedFields extractedFields;
     private List<String> missingFields;
     private String recommendedRoute;
     private String reasoning;
+    private String routingRule;
 }
 
@@ -0,0 +1,34 @@
+package com.insurance.claims.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * DTO representing an asynchronous claim processing job.
+ * The result is set once the job is COMPLETED, the error once it has FAILED.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClaimJob {
+    
+    public enum Status {
+        PENDING,
+        PROCESSING,
+        COMPLETED,
+        FAILED
+    }
+    
+    private String jobId;
+    private String filename;
+    private Status status;
+    private Instant submittedAt;
+    private Instant completedAt;
+    private ClaimExtractionResult result;
+    private String error;
+}
@@ -0,0 +1,24 @@
+package com.insurance.claims.dto;
+
+import com.insurance.claims.model.Claim;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO representing one page of stored claims, newest first
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClaimPage {
+    private List<Claim> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+}
@@ -15,7 +15,7 @@ import java.util.List;
  * DTO representing all extracted fields from FNOL document
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ExtractedFields {
@@ -0,0 +1,28 @@
+package com.insurance.claims.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO representing the outcome of replaying claims through the current and a
+ * candidate routing configuration
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplayReport {
+    private long totalClaims;
+    private long changedClaims;
+    private Map<String, Long> currentRoutes;
+    private Map<String, Long> candidateRoutes;
+    // "current route -> candidate route" for every claim whose route changed
+    private Map<String, Long> routeChanges;
+    // The first changed claims, bounded by the requested maximum
+    private List<RouteDiff> diffs;
+}
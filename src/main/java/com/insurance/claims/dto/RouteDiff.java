@@ -0,0 +1,24 @@
+package com.insurance.claims.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO representing a claim whose route differs between the current and the
+ * candidate routing configuration
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteDiff {
+    // 1-based position of the claim in the replayed input
+    private long record;
+    private String policyNumber;
+    private String currentRoute;
+    private String currentRule;
+    private String candidateRoute;
+    private String candidateRule;
+}
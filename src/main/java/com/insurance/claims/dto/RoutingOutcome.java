@@ -0,0 +1,22 @@
+package com.insurance.claims.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO representing the routing decision for pre-extracted claim fields,
+ * without echoing the fields themselves
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoutingOutcome {
+    private String recommendedRoute;
+    private String routingRule;
+    private List<String> missingFields;
+}
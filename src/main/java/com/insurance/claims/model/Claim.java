@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 
 /**
@@ -24,5 +25,13 @@ public class Claim {
     private String claimType;
     private List<String> attachments;
     private BigDecimal initialEstimate;
+    
+    // Processing outcome
+    private String filename;
+    private List<String> missingFields;
+    private String recommendedRoute;
+    private String routingRule;
+    private String reasoning;
+    private Instant processedAt;
 }
 
@@ -0,0 +1,342 @@
+package com.insurance.claims.model;
+
+import com.insurance.claims.dto.ExtractedFields;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Compact internal form of the extracted fields for the extract, validate and route
+ * stages; converted to the public ExtractedFields DTO once the response is built.
+ *
+ * Dates are held as epoch days, the incident time as minutes since midnight and
+ * amounts as an unscaled long with a scale, so none of them is boxed. Which fields
+ * were found is tracked in a presence bitset with one bit per ExtractedFields property.
+ * Amounts with more than 18 significant digits are kept as BigDecimal instead.
+ */
+public final class ClaimFields {
+
+    // Bit of each ExtractedFields property in the presence set
+    public static final int POLICY_NUMBER = 0;
+    public static final int POLICYHOLDER_NAME = 1;
+    public static final int EFFECTIVE_START_DATE = 2;
+    public static final int EFFECTIVE_END_DATE = 3;
+    public static final int INCIDENT_DATE = 4;
+    public static final int INCIDENT_TIME = 5;
+    public static final int LOCATION = 6;
+    public static final int DESCRIPTION = 7;
+    public static final int CLAIMANT_NAME = 8;
+    public static final int THIRD_PARTIES = 9;
+    public static final int CONTACT_DETAILS = 10;
+    public static final int ASSET_TYPE = 11;
+    public static final int ASSET_ID = 12;
+    public static final int ESTIMATED_DAMAGE = 13;
+    public static final int CLAIM_TYPE = 14;
+    public static final int ATTACHMENTS = 15;
+    public static final int INITIAL_ESTIMATE = 16;
+
+    // ExtractedFields property name of each bit
+    private static final String[] PROPERTY_NAMES = {
+        "policyNumber", "policyholderName", "effectiveStartDate", "effectiveEndDate",
+        "incidentDate", "incidentTime", "location", "description", "claimantName",
+        "thirdParties", "contactDetails", "assetType", "assetId", "estimatedDamage",
+        "claimType", "attachments", "initialEstimate"
+    };
+
+    private int present;
+
+    private String policyNumber;
+    private String policyholderName;
+    private int effectiveStartDay;
+    private int effectiveEndDay;
+    private int incidentDay;
+    private int incidentMinute;
+    private String location;
+    private String description;
+    private String claimantName;
+    private List<String> thirdParties;
+    private String contactDetails;
+    private String assetType;
+    private String assetId;
+    private long estimatedDamageUnscaled;
+    private int estimatedDamageScale;
+    private BigDecimal estimatedDamageLarge;
+    private String claimType;
+    private List<String> attachments;
+    private long initialEstimateUnscaled;
+    private int initialEstimateScale;
+    private BigDecimal initialEstimateLarge;
+
+    /**
+     * Bit of an ExtractedFields property, or -1 if there is no such property
+     */
+    public static int bitOf(String propertyName) {
+        for (int bit = 0; bit < PROPERTY_NAMES.length; bit++) {
+            if (PROPERTY_NAMES[bit].equals(propertyName)) {
+                return bit;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Presence set: bit {@code 1 << field} is set when the field was found
+     */
+    public int getPresent() {
+        return present;
+    }
+
+    public boolean has(int field) {
+        return (present & (1 << field)) != 0;
+    }
+
+    public String getPolicyNumber() {
+        return policyNumber;
+    }
+
+    public void setPolicyNumber(String policyNumber) {
+        this.policyNumber = setPresent(POLICY_NUMBER, policyNumber);
+    }
+
+    public String getPolicyholderName() {
+        return policyholderName;
+    }
+
+    public void setPolicyholderName(String policyholderName) {
+        this.policyholderName = setPresent(POLICYHOLDER_NAME, policyholderName);
+    }
+
+    public void setEffectiveStartDay(int epochDay) {
+        this.effectiveStartDay = epochDay;
+        present |= 1 << EFFECTIVE_START_DATE;
+    }
+
+    public void setEffectiveEndDay(int epochDay) {
+        this.effectiveEndDay = epochDay;
+        present |= 1 << EFFECTIVE_END_DATE;
+    }
+
+    /**
+     * Incident date as days since 1970-01-01; only meaningful if INCIDENT_DATE is present
+     */
+    public int getIncidentDay() {
+        return incidentDay;
+    }
+
+    public void setIncidentDay(int epochDay) {
+        this.incidentDay = epochDay;
+        present |= 1 << INCIDENT_DATE;
+    }
+
+    public void setIncidentMinute(int minuteOfDay) {
+        this.incidentMinute = minuteOfDay;
+        present |= 1 << INCIDENT_TIME;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = setPresent(LOCATION, location);
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = setPresent(DESCRIPTION, description);
+    }
+
+    public void setClaimantName(String claimantName) {
+        this.claimantName = setPresent(CLAIMANT_NAME, claimantName);
+    }
+
+    public void setThirdParties(List<String> thirdParties) {
+        this.thirdParties = setPresent(THIRD_PARTIES, thirdParties);
+    }
+
+    public void setContactDetails(String contactDetails) {
+        this.contactDetails = setPresent(CONTACT_DETAILS, contactDetails);
+    }
+
+    public void setAssetType(String assetType) {
+        this.assetType = setPresent(ASSET_TYPE, assetType);
+    }
+
+    public String getAssetId() {
+        return assetId;
+    }
+
+    public void setAssetId(String assetId) {
+        this.assetId = setPresent(ASSET_ID, assetId);
+    }
+
+    /**
+     * @param unscaled Amount times 10^scale
+     */
+    public void setEstimatedDamage(long unscaled, int scale) {
+        this.estimatedDamageUnscaled = unscaled;
+        this.estimatedDamageScale = scale;
+        present |= 1 << ESTIMATED_DAMAGE;
+    }
+
+    public void setEstimatedDamage(BigDecimal estimatedDamage) {
+        if (estimatedDamage == null) {
+            return;
+        }
+        if (fitsUnscaledLong(estimatedDamage)) {
+            setEstimatedDamage(estimatedDamage.unscaledValue().longValue(), estimatedDamage.scale());
+        } else {
+            this.estimatedDamageLarge = estimatedDamage;
+            present |= 1 << ESTIMATED_DAMAGE;
+        }
+    }
+
+    /**
+     * Compare the estimated damage with unscaled * 10^-scale without allocating.
+     * Only meaningful if ESTIMATED_DAMAGE is present.
+     */
+    public int compareEstimatedDamage(long unscaled, int scale) {
+        if (estimatedDamageLarge != null) {
+            return estimatedDamageLarge.compareTo(BigDecimal.valueOf(unscaled, scale));
+        }
+        return compareScaled(estimatedDamageUnscaled, estimatedDamageScale, unscaled, scale);
+    }
+
+    public BigDecimal getEstimatedDamage() {
+        if (!has(ESTIMATED_DAMAGE)) {
+            return null;
+        }
+        return estimatedDamageLarge != null
+                ? estimatedDamageLarge
+                : BigDecimal.valueOf(estimatedDamageUnscaled, estimatedDamageScale);
+    }
+
+    public String getClaimType() {
+        return claimType;
+    }
+
+    public void setClaimType(String claimType) {
+        this.claimType = setPresent(CLAIM_TYPE, claimType);
+    }
+
+    public void setAttachments(List<String> attachments) {
+        this.attachments = setPresent(ATTACHMENTS, attachments);
+    }
+
+    /**
+     * @param unscaled Amount times 10^scale
+     */
+    public void setInitialEstimate(long unscaled, int scale) {
+        this.initialEstimateUnscaled = unscaled;
+        this.initialEstimateScale = scale;
+        present |= 1 << INITIAL_ESTIMATE;
+    }
+
+    public void setInitialEstimate(BigDecimal initialEstimate) {
+        if (initialEstimate == null) {
+            return;
+        }
+        if (fitsUnscaledLong(initialEstimate)) {
+            setInitialEstimate(initialEstimate.unscaledValue().longValue(), initialEstimate.scale());
+        } else {
+            this.initialEstimateLarge = initialEstimate;
+            present |= 1 << INITIAL_ESTIMATE;
+        }
+    }
+
+    /**
+     * Build the public DTO
+     */
+    public ExtractedFields toExtractedFields() {
+        return ExtractedFields.builder()
+                .policyNumber(policyNumber)
+                .policyholderName(policyholderName)
+                .effectiveStartDate(has(EFFECTIVE_START_DATE) ? LocalDate.ofEpochDay(effectiveStartDay) : null)
+                .effectiveEndDate(has(EFFECTIVE_END_DATE) ? LocalDate.ofEpochDay(effectiveEndDay) : null)
+                .incidentDate(has(INCIDENT_DATE) ? LocalDate.ofEpochDay(incidentDay) : null)
+                .incidentTime(has(INCIDENT_TIME) ? LocalTime.of(incidentMinute / 60, incidentMinute % 60) : null)
+                .location(location)
+                .description(description)
+                .claimantName(claimantName)
+                .thirdParties(thirdParties)
+                .contactDetails(contactDetails)
+                .assetType(assetType)
+                .assetId(assetId)
+                .estimatedDamage(getEstimatedDamage())
+                .claimType(claimType)
+                .attachments(attachments)
+                .initialEstimate(!has(INITIAL_ESTIMATE) ? null : initialEstimateLarge != null
+                        ? initialEstimateLarge
+                        : BigDecimal.valueOf(initialEstimateUnscaled, initialEstimateScale))
+                .build();
+    }
+
+    /**
+     * Convert fields that did not come from a document, e.g. for bulk routing.
+     * Times are kept to the minute, which is all the extraction produces.
+     */
+    public static ClaimFields from(ExtractedFields fields) {
+        ClaimFields claim = new ClaimFields();
+        claim.setPolicyNumber(fields.getPolicyNumber());
+        claim.setPolicyholderName(fields.getPolicyholderName());
+        if (fields.getEffectiveStartDate() != null) {
+            claim.setEffectiveStartDay((int) fields.getEffectiveStartDate().toEpochDay());
+        }
+        if (fields.getEffectiveEndDate() != null) {
+            claim.setEffectiveEndDay((int) fields.getEffectiveEndDate().toEpochDay());
+        }
+        if (fields.getIncidentDate() != null) {
+            claim.setIncidentDay((int) fields.getIncidentDate().toEpochDay());
+        }
+        if (fields.getIncidentTime() != null) {
+            claim.setIncidentMinute(fields.getIncidentTime().getHour() * 60 + fields.getIncidentTime().getMinute());
+        }
+        claim.setLocation(fields.getLocation());
+        claim.setDescription(fields.getDescription());
+        claim.setClaimantName(fields.getClaimantName());
+        claim.setThirdParties(fields.getThirdParties());
+        claim.setContactDetails(fields.getContactDetails());
+        claim.setAssetType(fields.getAssetType());
+        claim.setAssetId(fields.getAssetId());
+        claim.setEstimatedDamage(fields.getEstimatedDamage());
+        claim.setClaimType(fields.getClaimType());
+        claim.setAttachments(fields.getAttachments());
+        claim.setInitialEstimate(fields.getInitialEstimate());
+        return claim;
+    }
+
+    private <T> T setPresent(int field, T value) {
+        if (value != null) {
+            present |= 1 << field;
+        } else {
+            present &= ~(1 << field);
+        }
+        return value;
+    }
+
+    private static boolean fitsUnscaledLong(BigDecimal value) {
+        return value.scale() >= 0 && value.precision() <= 18;
+    }
+
+    /**
+     * Compare a * 10^-aScale with b * 10^-bScale (both scales non-negative)
+     */
+    public static int compareScaled(long a, int aScale, long b, int bScale) {
+        if (aScale > bScale) {
+            return -compareScaled(b, bScale, a, aScale);
+        }
+        // Bring a to b's scale; if that overflows, a is larger in magnitude than b
+        for (int i = aScale; i < bScale; i++) {
+            if (a > Long.MAX_VALUE / 10 || a < Long.MIN_VALUE / 10) {
+                return Long.signum(a);
+            }
+            a *= 10;
+        }
+        return Long.compare(a, b);
+    }
+}
@@ -0,0 +1,19 @@
+package com.insurance.claims.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents a fraud indicator term or phrase and its weight in the fraud score
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FraudKeyword {
+    private String term;
+    @Builder.Default
+    private double weight = 1.0;
+}
@@ -0,0 +1,21 @@
+package com.insurance.claims.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents one routing rule from routing-rules.json.
+ * Rules are evaluated in order and the first rule whose condition holds decides the route.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoutingRule {
+    private String id;
+    private RuleCondition when;
+    private String route;
+    private String reason;
+}
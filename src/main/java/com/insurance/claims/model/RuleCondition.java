@@ -0,0 +1,34 @@
+package com.insurance.claims.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Represents the condition of a routing rule. Every criterion that is set must hold;
+ * a rule without criteria always applies.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RuleCondition {
+    // true: at least one mandatory field is missing, false: all are present
+    private Boolean missingFields;
+    
+    // Fraud keyword score of the description is at least this value
+    private Double fraudScoreAtLeast;
+    
+    // true: an earlier claim on the same policy and asset or location has a nearby incident date
+    private Boolean duplicateClaim;
+    
+    // Claim type contains this text (case-insensitive)
+    private String claimTypeContains;
+    
+    // Estimated damage is present and below / at least this amount
+    private BigDecimal estimatedDamageBelow;
+    private BigDecimal estimatedDamageAtLeast;
+}
@@ -0,0 +1,254 @@
+package com.insurance.claims.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service for admission control in front of the synchronous processing endpoint.
+ * 
+ * A document is admitted while its file type is below its concurrency limit and the
+ * bytes of all documents in flight stay within claims.admission.max-in-flight-bytes.
+ * Otherwise the request waits in a bounded queue for up to claims.admission.max-wait;
+ * when the queue is full or the wait times out it is rejected straight away, so
+ * bursts are shed instead of exhausting the heap.
+ * 
+ * Waiting requests are admitted in arrival order. A release hands the freed capacity
+ * to the waiters that now fit and wakes only those, so a large document waiting for
+ * its bytes is not overtaken by a stream of small ones.
+ */
+@Service
+public class AdmissionControlService {
+    
+    @Autowired
+    private ClaimMetricsService metricsService;
+    
+    @Value("${claims.admission.pdf.max-concurrent:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int maxConcurrentPdf;
+    
+    @Value("${claims.admission.txt.max-concurrent:64}")
+    private int maxConcurrentTxt;
+    
+    @Value("${claims.admission.max-in-flight-bytes:256MB}")
+    private DataSize maxInFlightBytes;
+    
+    @Value("${claims.admission.max-queued:50}")
+    private int maxQueued;
+    
+    @Value("${claims.admission.max-wait:2s}")
+    private Duration maxWait;
+    
+    @Value("${claims.admission.retry-after:5s}")
+    private Duration retryAfter;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    
+    // Guarded by lock
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private int inFlightPdf;
+    private int inFlightTxt;
+    private long inFlightBytes;
+    
+    /**
+     * Held while a document is processed; closing it admits the next waiting request
+     */
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+    
+    /**
+     * Thrown when a request is shed
+     */
+    public static class RejectedException extends RuntimeException {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final Duration retryAfter;
+        
+        public RejectedException(String message, Duration retryAfter) {
+            super(message);
+            this.retryAfter = retryAfter;
+        }
+        
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+    }
+    
+    /**
+     * Admit a document, waiting in the queue if the limits are currently reached
+     * 
+     * @param filename Name of the document, which determines its file type
+     * @param size Size of the document in bytes
+     * @return Permit to close once processing has finished
+     * @throws RejectedException if the wait queue is full or the wait timed out
+     */
+    public Permit acquire(String filename, long size) {
+        boolean pdf = DocumentParserService.PDF.equals(DocumentParserService.fileType(filename));
+        String fileType = pdf ? DocumentParserService.PDF : DocumentParserService.TXT;
+        
+        lock.lock();
+        try {
+            if (waiters.isEmpty() && canAdmit(pdf, size)) {
+                reserve(pdf, size);
+            } else {
+                await(new Waiter(pdf, size, lock.newCondition()), fileType);
+            }
+        } finally {
+            lock.unlock();
+        }
+        
+        return new Permit() {
+            private boolean closed;
+            
+            @Override
+            public void close() {
+                if (!closed) {
+                    closed = true;
+                    release(pdf, size);
+                }
+            }
+        };
+    }
+    
+    /**
+     * Queue the request and wait until a release admits it. Called with the lock held.
+     */
+    private void await(Waiter waiter, String fileType) {
+        if (waiters.size() >= maxQueued) {
+            throw reject(fileType, "queue-full", "Server is busy: too many documents waiting to be processed");
+        }
+        waiters.addLast(waiter);
+        // Earlier waiters may be held back only by their own file type's limit
+        admitWaiters();
+        
+        try {
+            long remaining = maxWait.toNanos();
+            while (!waiter.admitted) {
+                if (remaining <= 0) {
+                    waiters.remove(waiter);
+                    admitWaiters();
+                    throw reject(fileType, "timeout", "Server is busy: timed out waiting to process the document");
+                }
+                remaining = waiter.ready.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (waiter.admitted) {
+                unreserve(waiter.pdf, waiter.size);
+            } else {
+                waiters.remove(waiter);
+            }
+            admitWaiters();
+            throw reject(fileType, "interrupted", "Server is busy: interrupted while waiting");
+        }
+    }
+    
+    private void release(boolean pdf, long size) {
+        lock.lock();
+        try {
+            unreserve(pdf, size);
+            admitWaiters();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Admit waiting requests in arrival order. A waiter without a free slot holds back
+     * the later waiters of its file type, and a waiter short of bytes holds back every
+     * later waiter, so the bytes freed by releases accumulate for it.
+     */
+    private void admitWaiters() {
+        boolean pdfBlocked = false;
+        boolean txtBlocked = false;
+        Iterator<Waiter> it = waiters.iterator();
+        while (it.hasNext() && !(pdfBlocked && txtBlocked)) {
+            Waiter waiter = it.next();
+            if (waiter.pdf ? pdfBlocked : txtBlocked) {
+                continue;
+            }
+            if (!hasSlot(waiter.pdf)) {
+                if (waiter.pdf) {
+                    pdfBlocked = true;
+                } else {
+                    txtBlocked = true;
+                }
+                continue;
+            }
+            if (!hasBytes(waiter.size)) {
+                return;
+            }
+            
+            reserve(waiter.pdf, waiter.size);
+            waiter.admitted = true;
+            it.remove();
+            waiter.ready.signal();
+        }
+    }
+    
+    private boolean canAdmit(boolean pdf, long size) {
+        return hasSlot(pdf) && hasBytes(size);
+    }
+    
+    private boolean hasSlot(boolean pdf) {
+        return pdf ? inFlightPdf < maxConcurrentPdf : inFlightTxt < maxConcurrentTxt;
+    }
+    
+    /**
+     * A document larger than the byte budget is still admitted when nothing else is
+     * in flight, otherwise it could never run
+     */
+    private boolean hasBytes(long size) {
+        return inFlightBytes == 0 || inFlightBytes + size <= maxInFlightBytes.toBytes();
+    }
+    
+    private void reserve(boolean pdf, long size) {
+        if (pdf) {
+            inFlightPdf++;
+        } else {
+            inFlightTxt++;
+        }
+        inFlightBytes += size;
+    }
+    
+    private void unreserve(boolean pdf, long size) {
+        if (pdf) {
+            inFlightPdf--;
+        } else {
+            inFlightTxt--;
+        }
+        inFlightBytes -= size;
+    }
+    
+    private RejectedException reject(String fileType, String reason, String message) {
+        metricsService.recordRejected(fileType, reason);
+        return new RejectedException(message, retryAfter);
+    }
+    
+    /**
+     * A queued request, woken through its own condition once it has been admitted
+     */
+    private static class Waiter {
+        private final boolean pdf;
+        private final long size;
+        private final Condition ready;
+        // Guarded by lock; set with the capacity already reserved for the waiter
+        private boolean admitted;
+        
+        private Waiter(boolean pdf, long size, Condition ready) {
+            this.pdf = pdf;
+            this.size = size;
+            this.ready = ready;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.insurance.claims.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurance.claims.dto.ExtractedFields;
+import com.insurance.claims.dto.RoutingOutcome;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Service for routing claims whose fields were already extracted upstream.
+ * Only validation and routing run; there is no document to parse.
+ */
+@Service
+public class BulkRoutingService {
+    
+    @Autowired
+    private ValidationService validationService;
+    
+    @Autowired
+    private RoutingService routingService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${claims.routing.bulk.chunk-size:1024}")
+    private int chunkSize;
+    
+    /**
+     * Receives the outcomes of each streamed chunk, in input order
+     */
+    @FunctionalInterface
+    public interface OutcomeSink {
+        void accept(List<RoutingOutcome> outcomes) throws IOException;
+    }
+    
+    /**
+     * Route claims in parallel
+     * @param claims Extracted fields of each claim
+     * @return One outcome per claim, in input order
+     */
+    public List<RoutingOutcome> route(List<ExtractedFields> claims) {
+        // Routing is pure CPU work of a few microseconds per claim, so the common
+        // fork/join pool splits the list instead of one pipeline task per claim
+        return IntStream.range(0, claims.size())
+                .parallel()
+                .mapToObj(i -> route(claims.get(i)))
+                .toList();
+    }
+    
+    /**
+     * Route a stream of claims (one ExtractedFields JSON object per line) in chunks of
+     * claims.routing.bulk.chunk-size, so only one chunk is held in memory at a time
+     * @param ndjson Claims as newline-delimited JSON
+     * @param sink Receives the outcomes of each chunk in input order
+     */
+    public void routeStream(InputStream ndjson, OutcomeSink sink) throws IOException {
+        try (MappingIterator<ExtractedFields> claims = objectMapper.readerFor(ExtractedFields.class).readValues(ndjson)) {
+            List<ExtractedFields> chunk = new ArrayList<>(chunkSize);
+            try {
+                while (claims.hasNextValue()) {
+                    chunk.add(claims.nextValue());
+                    if (chunk.size() == chunkSize) {
+                        sink.accept(route(chunk));
+                        chunk.clear();
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                // Route the claims read before the invalid line, then report it
+                if (!chunk.isEmpty()) {
+                    sink.accept(route(chunk));
+                }
+                throw e;
+            }
+            if (!chunk.isEmpty()) {
+                sink.accept(route(chunk));
+            }
+        }
+    }
+    
+    private RoutingOutcome route(ExtractedFields fields) {
+        if (fields == null) {
+            throw new IllegalArgumentException("Claim fields must not be null");
+        }
+        int missingFields = validationService.findMissingFields(fields);
+        RoutingService.RoutingDecision decision = routingService.determineRoute(fields, missingFields);
+        
+        return RoutingOutcome.builder()
+                .recommendedRoute(decision.getRoute())
+                .routingRule(decision.getRuleId())
+                .missingFields(validationService.toFieldNames(missingFields))
+                .build();
+    }
+}
@@ -0,0 +1,244 @@
+package com.insurance.claims.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurance.claims.dto.ClaimExtractionResult;
+import com.insurance.claims.dto.ClaimJob;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service for asynchronous claim processing.
+ * 
+ * Each job is a directory under claims.jobs.dir holding the uploaded document and a
+ * job.json status file. Pending jobs are queued in memory for a fixed number of
+ * workers; on startup every job that had not finished is queued again, so a restart
+ * does not lose accepted documents. The document is deleted once the job is done and
+ * the status file is kept for claims.jobs.retention.
+ */
+@Service
+public class ClaimJobService {
+    
+    private static final String JOB_FILE = "job.json";
+    private static final String DOCUMENT_FILE = "document";
+    
+    @Autowired
+    private ClaimProcessingService claimProcessingService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    @Qualifier("claimJobExecutor")
+    private AsyncTaskExecutor jobExecutor;
+    
+    @Value("${claims.jobs.dir:data/jobs}")
+    private Path jobsDir;
+    
+    @Value("${claims.jobs.queue-capacity:1000}")
+    private int queueCapacity;
+    
+    @Value("${claims.jobs.workers:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int workers;
+    
+    @Value("${claims.jobs.retention:24h}")
+    private Duration retention;
+    
+    private final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+    private final AtomicInteger pendingJobs = new AtomicInteger();
+    private volatile boolean running = true;
+    
+    /**
+     * Re-queue unfinished jobs from a previous run and start the workers
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(jobsDir);
+        
+        List<ClaimJob> unfinished = new ArrayList<>();
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(jobsDir, Files::isDirectory)) {
+            for (Path dir : dirs) {
+                ClaimJob job = readJob(dir);
+                if (job != null && isUnfinished(job)) {
+                    unfinished.add(job);
+                }
+            }
+        }
+        unfinished.sort(Comparator.comparing(ClaimJob::getSubmittedAt));
+        for (ClaimJob job : unfinished) {
+            // Accepted before the restart, so not subject to the queue capacity
+            pendingJobs.incrementAndGet();
+            queue.add(job.getJobId());
+        }
+        
+        for (int i = 0; i < workers; i++) {
+            jobExecutor.execute(this::runWorker);
+        }
+    }
+    
+    @PreDestroy
+    public void stop() {
+        // Jobs still queued or running stay on disk and are picked up on the next start
+        running = false;
+    }
+    
+    /**
+     * Store the document and queue it for processing
+     * 
+     * @param file The FNOL document (PDF or TXT format)
+     * @return The pending job
+     * @throws RejectedExecutionException if claims.jobs.queue-capacity jobs are already pending
+     */
+    public ClaimJob submit(MultipartFile file) throws IOException {
+        claimProcessingService.checkDocumentSize(file.getOriginalFilename(), file.getSize());
+        
+        if (pendingJobs.incrementAndGet() > queueCapacity) {
+            pendingJobs.decrementAndGet();
+            throw new RejectedExecutionException("Job queue is full (" + queueCapacity + " pending jobs)");
+        }
+        
+        ClaimJob job = ClaimJob.builder()
+                .jobId(UUID.randomUUID().toString())
+                .filename(file.getOriginalFilename())
+                .status(ClaimJob.Status.PENDING)
+                .submittedAt(Instant.now())
+                .build();
+        Path dir = jobsDir.resolve(job.getJobId());
+        try {
+            Files.createDirectories(dir);
+            file.transferTo(dir.resolve(DOCUMENT_FILE));
+            // The status file is written last: a directory without one is not a job yet
+            writeJob(dir, job);
+        } catch (IOException | RuntimeException e) {
+            pendingJobs.decrementAndGet();
+            FileSystemUtils.deleteRecursively(dir);
+            throw e;
+        }
+        
+        queue.add(job.getJobId());
+        return job;
+    }
+    
+    /**
+     * Current state of a job, or empty if the ID is unknown
+     */
+    public Optional<ClaimJob> getJob(String jobId) throws IOException {
+        if (!isJobId(jobId)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(readJob(jobsDir.resolve(jobId)));
+    }
+    
+    /**
+     * Delete finished jobs older than claims.jobs.retention
+     */
+    @Scheduled(fixedDelay = 10, timeUnit = TimeUnit.MINUTES)
+    public void purgeFinishedJobs() throws IOException {
+        Instant cutoff = Instant.now().minus(retention);
+        
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(jobsDir, Files::isDirectory)) {
+            for (Path dir : dirs) {
+                ClaimJob job = readJob(dir);
+                if (job != null && !isUnfinished(job) && job.getCompletedAt().isBefore(cutoff)) {
+                    FileSystemUtils.deleteRecursively(dir);
+                }
+            }
+        }
+    }
+    
+    private void runWorker() {
+        while (running) {
+            String jobId;
+            try {
+                jobId = queue.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (jobId == null) {
+                continue;
+            }
+            
+            pendingJobs.decrementAndGet();
+            try {
+                runJob(jobsDir.resolve(jobId));
+            } catch (IOException | RuntimeException e) {
+                // The status file could not be read or written; the job is retried on the next start
+            }
+        }
+    }
+    
+    private void runJob(Path dir) throws IOException {
+        ClaimJob job = readJob(dir);
+        if (job == null) {
+            return;
+        }
+        writeJob(dir, job.toBuilder().status(ClaimJob.Status.PROCESSING).build());
+        
+        ClaimJob.ClaimJobBuilder finished = job.toBuilder();
+        try {
+            byte[] content = Files.readAllBytes(dir.resolve(DOCUMENT_FILE));
+            ClaimExtractionResult result = claimProcessingService.process(job.getFilename(), content);
+            finished.status(ClaimJob.Status.COMPLETED).result(result);
+        } catch (Exception e) {
+            finished.status(ClaimJob.Status.FAILED).error(ClaimProcessingService.describeError(e));
+        }
+        
+        writeJob(dir, finished.completedAt(Instant.now()).build());
+        Files.deleteIfExists(dir.resolve(DOCUMENT_FILE));
+    }
+    
+    private ClaimJob readJob(Path dir) throws IOException {
+        Path file = dir.resolve(JOB_FILE);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        return objectMapper.readValue(file.toFile(), ClaimJob.class);
+    }
+    
+    /**
+     * Replace the status file atomically so readers never see a partial write
+     */
+    private void writeJob(Path dir, ClaimJob job) throws IOException {
+        Path temp = dir.resolve(JOB_FILE + ".tmp");
+        objectMapper.writeValue(temp.toFile(), job);
+        Files.move(temp, dir.resolve(JOB_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    private static boolean isUnfinished(ClaimJob job) {
+        return job.getStatus() == ClaimJob.Status.PENDING || job.getStatus() == ClaimJob.Status.PROCESSING;
+    }
+    
+    private static boolean isJobId(String jobId) {
+        try {
+            return UUID.fromString(jobId).toString().equals(jobId);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.insurance.claims.service;
+
+import com.insurance.claims.dto.ClaimExtractionResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Service for recording claim pipeline metrics (exposed at /actuator/prometheus)
+ */
+@Service
+public class ClaimMetricsService {
+    
+    // Pipeline stages
+    public static final String PARSE = "parse";
+    public static final String EXTRACT = "extract";
+    public static final String VALIDATE = "validate";
+    public static final String ROUTE = "route";
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    public Timer.Sample startTimer() {
+        return Timer.start(meterRegistry);
+    }
+    
+    /**
+     * Record the duration of one pipeline stage, tagged by file type and page count
+     */
+    public void recordStage(String stage, Timer.Sample sample, DocumentParserService.ParsedDocument document) {
+        sample.stop(Timer.builder("claims.pipeline.stage")
+                .description("Duration of a claim pipeline stage")
+                .tag("stage", stage)
+                .tag("file.type", document.getFileType())
+                .tag("pages", pageBucket(document.getPageCount()))
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+    
+    /**
+     * Record the size of an ingested document
+     */
+    public void recordIngested(String fileType, long bytes) {
+        DistributionSummary.builder("claims.ingested")
+                .description("Size of ingested FNOL documents")
+                .baseUnit("bytes")
+                .tag("file.type", fileType)
+                .register(meterRegistry)
+                .record(bytes);
+    }
+    
+    /**
+     * Count a request shed by admission control
+     */
+    public void recordRejected(String fileType, String reason) {
+        Counter.builder("claims.admission.rejected")
+                .description("Requests rejected by admission control")
+                .tag("file.type", fileType)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+    
+    /**
+     * Record how long the startup warm-up took
+     */
+    public void recordWarmup(Duration duration) {
+        Timer.builder("claims.warmup")
+                .description("Duration of the startup warm-up")
+                .register(meterRegistry)
+                .record(duration);
+    }
+    
+    /**
+     * Count the route and every missing mandatory field of a processed claim
+     */
+    public void recordOutcome(ClaimExtractionResult result) {
+        Counter.builder("claims.routed")
+                .description("Claims processed per recommended route")
+                .tag("route", result.getRecommendedRoute())
+                .register(meterRegistry)
+                .increment();
+        
+        for (String field : result.getMissingFields()) {
+            Counter.builder("claims.missing.fields")
+                    .description("Claims missing a mandatory field")
+                    .tag("field", field)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+    
+    /**
+     * Page counts are bucketed to keep tag cardinality bounded
+     */
+    private static String pageBucket(int pages) {
+        if (pages <= 1) {
+            return "1";
+        } else if (pages <= 5) {
+            return "2-5";
+        } else if (pages <= 20) {
+            return "6-20";
+        } else if (pages <= 100) {
+            return "21-100";
+        }
+        return "100+";
+    }
+}
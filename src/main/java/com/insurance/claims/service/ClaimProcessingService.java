@@ -0,0 +1,483 @@
+package com.insurance.claims.service;
+
+import com.insurance.claims.dto.BatchItemResult;
+import com.insurance.claims.dto.BatchProcessingResult;
+import com.insurance.claims.dto.ClaimExtractionResult;
+import com.insurance.claims.model.ClaimFields;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveException;
+import org.apache.commons.compress.archivers.ArchiveInputStream;
+import org.apache.commons.compress.archivers.ArchiveStreamFactory;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Service that runs the parse, extract, validate and route pipeline for single
+ * documents and batches
+ */
+@Service
+public class ClaimProcessingService {
+    
+    @Autowired
+    private DocumentParserService documentParserService;
+    
+    @Autowired
+    private FieldExtractionService fieldExtractionService;
+    
+    @Autowired
+    private ValidationService validationService;
+    
+    @Autowired
+    private RoutingService routingService;
+    
+    @Autowired
+    private ClaimResultCache resultCache;
+    
+    @Autowired
+    private ClaimMetricsService metricsService;
+    
+    @Autowired
+    private ClaimStoreService claimStoreService;
+    
+    @Autowired
+    private DuplicateClaimIndex duplicateClaimIndex;
+    
+    @Autowired
+    @Qualifier("claimPipelineExecutor")
+    private AsyncTaskExecutor pipelineExecutor;
+    
+    @Value("${claims.max-document-size:10MB}")
+    private DataSize maxDocumentSize;
+    
+    @Value("${claims.batch.max-documents:1000}")
+    private int maxBatchDocuments;
+    
+    @Value("${claims.stream.max-in-flight:#{2 * T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int maxInFlight;
+    
+    /**
+     * Parses one document for the pipeline
+     */
+    @FunctionalInterface
+    private interface DocumentParse {
+        DocumentParserService.ParsedDocument parse() throws IOException;
+    }
+    
+    /**
+     * Looks up a document in the result cache, running the loader on a miss
+     */
+    @FunctionalInterface
+    private interface CacheLookup {
+        ClaimExtractionResult get(ClaimResultCache.ResultLoader loader) throws IOException;
+    }
+    
+    /**
+     * Receives each streamed document result as soon as it is ready
+     */
+    @FunctionalInterface
+    public interface ResultSink {
+        void accept(BatchItemResult item) throws IOException;
+    }
+    
+    /**
+     * Process an uploaded FNOL document
+     * @param file The FNOL document (PDF or TXT format)
+     * @return ClaimExtractionResult with extracted fields, missing fields, route, and reasoning
+     * @throws IOException if the document cannot be read or parsed
+     */
+    public ClaimExtractionResult process(MultipartFile file) throws IOException {
+        String filename = file.getOriginalFilename();
+        checkDocumentSize(filename, file.getSize());
+        metricsService.recordIngested(DocumentParserService.fileType(filename), file.getSize());
+        
+        ClaimExtractionResult result = processCached(filename, loader -> resultCache.get(file, loader),
+                () -> documentParserService.parseDocument(file, fieldExtractionService::isComplete));
+        metricsService.recordOutcome(result);
+        return result;
+    }
+    
+    /**
+     * Process an FNOL document that is already in memory, e.g. an archive entry
+     */
+    public ClaimExtractionResult process(String filename, byte[] content) throws IOException {
+        checkDocumentSize(filename, content.length);
+        metricsService.recordIngested(DocumentParserService.fileType(filename), content.length);
+        
+        ClaimExtractionResult result = processCached(filename, loader -> resultCache.get(filename, content, loader),
+                () -> documentParserService.parseDocument(filename, content, fieldExtractionService::isComplete));
+        metricsService.recordOutcome(result);
+        return result;
+    }
+    
+    /**
+     * Process many FNOL documents on the pipeline worker pool.
+     * ZIP uploads are expanded and each PDF/TXT entry is processed as its own document.
+     * A failing document is reported in its BatchItemResult and does not fail the batch.
+     * The batch size is checked before any document is submitted, so a rejected batch
+     * leaves nothing processing in the background.
+     * @param files Uploaded FNOL documents and/or ZIP archives of documents
+     * @return Per-document results in upload order
+     * @throws IOException if an archive cannot be read
+     * @throws IllegalArgumentException if the batch has more than claims.batch.max-documents documents
+     */
+    public BatchProcessingResult processBatch(List<MultipartFile> files) throws IOException {
+        checkBatchSize(files);
+        
+        List<String> filenames = new ArrayList<>();
+        List<Future<ClaimExtractionResult>> futures = new ArrayList<>();
+        
+        try {
+            for (MultipartFile file : files) {
+                if (isZipArchive(file)) {
+                    submitArchiveEntries(file, filenames, futures);
+                } else {
+                    filenames.add(file.getOriginalFilename());
+                    futures.add(pipelineExecutor.submit(() -> process(file)));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Documents that have not started yet are dropped with the failed request
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+        
+        List<BatchItemResult> results = new ArrayList<>(futures.size());
+        int failed = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            BatchItemResult item = awaitResult(filenames.get(i), futures.get(i));
+            if (item.getError() != null) {
+                failed++;
+            }
+            results.add(item);
+        }
+        
+        return BatchProcessingResult.builder()
+                .totalDocuments(results.size())
+                .processed(results.size() - failed)
+                .failed(failed)
+                .results(results)
+                .build();
+    }
+    
+    /**
+     * Process a ZIP, TAR or gzipped TAR stream of FNOL documents entry by entry.
+     * 
+     * Entries are read incrementally from the stream and never unpacked to disk. At
+     * most claims.stream.max-in-flight documents are held in memory; once that many
+     * are in flight, reading waits for the sink to accept a finished result. A slow
+     * sink (e.g. a slow HTTP client) therefore throttles archive reading and parsing.
+     * Results are handed to the sink in completion order.
+     * @param archive Archive stream, not closed by this method
+     * @param sink Receives one BatchItemResult per document
+     * @throws IOException if the archive cannot be read or the sink fails
+     */
+    public void processArchiveStream(InputStream archive, ResultSink sink) throws IOException {
+        ExecutorCompletionService<BatchItemResult> completion = new ExecutorCompletionService<>(pipelineExecutor);
+        int inFlight = 0;
+        
+        try (ArchiveInputStream<?> entries = openArchive(archive)) {
+            ArchiveEntry entry;
+            while ((entry = entries.getNextEntry()) != null) {
+                if (entry.isDirectory() || !entries.canReadEntryData(entry)) {
+                    continue;
+                }
+                
+                // Backpressure: wait for the sink before reading more entries
+                while (inFlight >= maxInFlight) {
+                    sink.accept(take(completion));
+                    inFlight--;
+                }
+                
+                String entryName = entry.getName();
+                byte[] content;
+                try {
+                    content = readEntry(entryName, entries);
+                } catch (IllegalArgumentException e) {
+                    sink.accept(BatchItemResult.builder().filename(entryName).error(describeError(e)).build());
+                    continue;
+                }
+                completion.submit(() -> processEntry(entryName, content));
+                inFlight++;
+                
+                // Hand over whatever has finished in the meantime
+                Future<BatchItemResult> done;
+                while ((done = completion.poll()) != null) {
+                    sink.accept(get(done));
+                    inFlight--;
+                }
+            }
+        }
+        
+        while (inFlight > 0) {
+            sink.accept(take(completion));
+            inFlight--;
+        }
+    }
+    
+    private BatchItemResult processEntry(String entryName, byte[] content) {
+        try {
+            return BatchItemResult.builder()
+                    .filename(entryName)
+                    .result(process(entryName, content))
+                    .build();
+        } catch (Exception e) {
+            return BatchItemResult.builder()
+                    .filename(entryName)
+                    .error(describeError(e))
+                    .build();
+        }
+    }
+    
+    private BatchItemResult take(ExecutorCompletionService<BatchItemResult> completion) throws IOException {
+        try {
+            return get(completion.take());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for claim processing");
+        }
+    }
+    
+    private BatchItemResult get(Future<BatchItemResult> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for claim processing");
+        } catch (ExecutionException e) {
+            // processEntry reports its own failures, so this is unexpected
+            throw new IOException("Error processing archive entry", e.getCause());
+        }
+    }
+    
+    /**
+     * Open a ZIP or TAR stream, transparently decompressing gzip (.tar.gz)
+     */
+    private ArchiveInputStream<?> openArchive(InputStream archive) throws IOException {
+        InputStream in = new BufferedInputStream(archive);
+        in.mark(2);
+        boolean gzip = in.read() == 0x1f && in.read() == 0x8b;
+        in.reset();
+        if (gzip) {
+            in = new BufferedInputStream(new GzipCompressorInputStream(in));
+        }
+        
+        try {
+            return new ArchiveStreamFactory().createArchiveInputStream(in);
+        } catch (ArchiveException e) {
+            throw new IllegalArgumentException("Unsupported archive format. Only ZIP, TAR and TAR.GZ archives are supported.");
+        }
+    }
+    
+    /**
+     * Run the pipeline unless the result cache already holds the document. A cached
+     * result belongs to an earlier submission of the same document, so this
+     * submission is still checked for duplicates before it is returned.
+     */
+    private ClaimExtractionResult processCached(String filename, CacheLookup lookup, DocumentParse parse)
+            throws IOException {
+        boolean[] processed = {false};
+        ClaimExtractionResult result = lookup.get(() -> {
+            processed[0] = true;
+            return runPipeline(filename, parse);
+        });
+        return processed[0] ? result : routeResubmission(filename, result);
+    }
+    
+    /**
+     * Route a resubmitted document as a new submission. The earlier submission is
+     * in the duplicate index, so this usually finds it; if the route changes, the
+     * resubmission is stored as a new claim, otherwise the cached result with the
+     * claimId of the earlier submission is returned.
+     * @param cached Copy of the cached result, updated in place
+     */
+    private ClaimExtractionResult routeResubmission(String filename, ClaimExtractionResult cached) {
+        ClaimFields claimFields = ClaimFields.from(cached.getExtractedFields());
+        DuplicateClaimIndex.Match duplicate = duplicateClaimIndex.checkAndRecord(claimFields);
+        RoutingService.RoutingDecision decision = routingService.determineRoute(claimFields,
+                validationService.findMissingFields(claimFields), duplicate);
+        
+        if (Objects.equals(decision.getRuleId(), cached.getRoutingRule())
+                && Objects.equals(decision.getReasoning(), cached.getReasoning())) {
+            return cached;
+        }
+        cached.setRecommendedRoute(decision.getRoute());
+        cached.setReasoning(decision.getReasoning());
+        cached.setRoutingRule(decision.getRuleId());
+        cached.setClaimId(claimStoreService.save(filename, cached));
+        return cached;
+    }
+    
+    /**
+     * Run the parse, extract, validate and route stages, timing each of them, and
+     * store the processed claim
+     */
+    private ClaimExtractionResult runPipeline(String filename, DocumentParse parse) throws IOException {
+        // Step 1: Parse document to extract raw text
+        Timer.Sample stage = metricsService.startTimer();
+        DocumentParserService.ParsedDocument document = parse.parse();
+        metricsService.recordStage(ClaimMetricsService.PARSE, stage, document);
+        
+        // Step 2: Extract structured fields from raw text (compact form until the response is built)
+        stage = metricsService.startTimer();
+        ClaimFields claimFields = fieldExtractionService.extractClaimFields(document.getText());
+        metricsService.recordStage(ClaimMetricsService.EXTRACT, stage, document);
+        
+        // Step 3: Identify missing mandatory fields (once, shared by routing and the response)
+        stage = metricsService.startTimer();
+        int missingFields = validationService.findMissingFields(claimFields);
+        metricsService.recordStage(ClaimMetricsService.VALIDATE, stage, document);
+        
+        // Step 4: Check for earlier duplicates and determine routing based on business rules
+        stage = metricsService.startTimer();
+        DuplicateClaimIndex.Match duplicate = duplicateClaimIndex.checkAndRecord(claimFields);
+        RoutingService.RoutingDecision decision = routingService.determineRoute(claimFields, missingFields, duplicate);
+        metricsService.recordStage(ClaimMetricsService.ROUTE, stage, document);
+        
+        // Step 5: Build response
+        ClaimExtractionResult result = ClaimExtractionResult.builder()
+                .extractedFields(claimFields.toExtractedFields())
+                .missingFields(validationService.toFieldNames(missingFields))
+                .recommendedRoute(decision.getRoute())
+                .reasoning(decision.getReasoning())
+                .routingRule(decision.getRuleId())
+                .build();
+        
+        // Step 6: Store the claim
+        result.setClaimId(claimStoreService.save(filename, result));
+        return result;
+    }
+    
+    private void submitArchiveEntries(MultipartFile archive, List<String> filenames,
+                                      List<Future<ClaimExtractionResult>> futures) throws IOException {
+        try (ZipInputStream zip = new ZipInputStream(archive.getInputStream())) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                
+                String entryName = entry.getName();
+                filenames.add(entryName);
+                try {
+                    byte[] content = readEntry(entryName, zip);
+                    futures.add(pipelineExecutor.submit(() -> process(entryName, content)));
+                } catch (IllegalArgumentException e) {
+                    // Oversized entry: report it and move on to the next one
+                    futures.add(CompletableFuture.failedFuture(e));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Read one archive entry, refusing entries larger than the document size limit
+     */
+    private byte[] readEntry(String entryName, InputStream in) throws IOException {
+        long limit = maxDocumentSize.toBytes();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (out.size() + read > limit) {
+                throw new IllegalArgumentException("Archive entry " + entryName
+                        + " exceeds the maximum document size of " + maxDocumentSize);
+            }
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+    
+    private BatchItemResult awaitResult(String filename, Future<ClaimExtractionResult> future) {
+        try {
+            return BatchItemResult.builder()
+                    .filename(filename)
+                    .result(future.get())
+                    .build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return BatchItemResult.builder()
+                    .filename(filename)
+                    .error("Error processing document: interrupted")
+                    .build();
+        } catch (ExecutionException e) {
+            return BatchItemResult.builder()
+                    .filename(filename)
+                    .error(describeError(e.getCause()))
+                    .build();
+        }
+    }
+    
+    /**
+     * Error message for a failed document, worded like the single-document endpoint
+     */
+    public static String describeError(Throwable error) {
+        if (error instanceof IllegalArgumentException) {
+            return "Error: " + error.getMessage();
+        }
+        return "Error processing document: " + error.getMessage();
+    }
+    
+    void checkDocumentSize(String filename, long size) {
+        if (size > maxDocumentSize.toBytes()) {
+            throw new IllegalArgumentException("Document " + filename
+                    + " exceeds the maximum document size of " + maxDocumentSize);
+        }
+    }
+    
+    /**
+     * Count the documents of a batch, including every ZIP entry, and reject the batch
+     * as soon as the count exceeds the limit
+     */
+    private void checkBatchSize(List<MultipartFile> files) throws IOException {
+        int documents = 0;
+        for (MultipartFile file : files) {
+            if (!isZipArchive(file)) {
+                documents++;
+                checkBatchSize(documents);
+                continue;
+            }
+            try (ZipInputStream zip = new ZipInputStream(file.getInputStream())) {
+                ZipEntry entry;
+                while ((entry = zip.getNextEntry()) != null) {
+                    if (!entry.isDirectory()) {
+                        documents++;
+                        checkBatchSize(documents);
+                    }
+                }
+            }
+        }
+    }
+    
+    private void checkBatchSize(int documents) {
+        if (documents > maxBatchDocuments) {
+            throw new IllegalArgumentException("Batch exceeds the maximum of " + maxBatchDocuments + " documents");
+        }
+    }
+    
+    private static boolean isZipArchive(MultipartFile file) {
+        String filename = file.getOriginalFilename();
+        return filename != null && filename.toLowerCase().endsWith(".zip");
+    }
+}
@@ -0,0 +1,203 @@
+package com.insurance.claims.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.insurance.claims.dto.ClaimExtractionResult;
+import com.insurance.claims.dto.ExtractedFields;
+import com.insurance.claims.dto.ResultCacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Bounded cache of processed claims keyed by a SHA-256 hash of the document content.
+ * Resubmitting the exact same FNOL document returns the stored result instead of
+ * parsing it and running extraction again. Hit/miss metrics are published as
+ * cache.* meters with cache=claimResults.
+ * 
+ * A miss is processed on the calling thread, outside the cache's own locking, and
+ * concurrent submissions of the same document wait for that result. The cache holds
+ * its own copy of each result and every hit gets a fresh copy, so callers may
+ * modify what they get back.
+ */
+@Service
+public class ClaimResultCache {
+    
+    @Value("${claims.cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${claims.cache.maximum-size:10000}")
+    private long maximumSize;
+    
+    @Value("${claims.cache.expire-after-write:1h}")
+    private Duration expireAfterWrite;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private AsyncCache<String, ClaimExtractionResult> cache;
+    
+    /**
+     * Loads a result on a cache miss
+     */
+    @FunctionalInterface
+    public interface ResultLoader {
+        ClaimExtractionResult load() throws IOException;
+    }
+    
+    @PostConstruct
+    public void initCache() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "claimResults");
+    }
+    
+    /**
+     * Return the cached result for the uploaded document, or load and cache it.
+     * Concurrent submissions of the same document are processed only once.
+     * Failures are not cached.
+     */
+    public ClaimExtractionResult get(MultipartFile file, ResultLoader loader) throws IOException {
+        if (!enabled) {
+            return loader.load();
+        }
+        try (InputStream in = file.getInputStream()) {
+            return get(cacheKey(file.getOriginalFilename(), digest(in)), loader);
+        }
+    }
+    
+    /**
+     * Return the cached result for an in-memory document, or load and cache it
+     */
+    public ClaimExtractionResult get(String filename, byte[] content, ResultLoader loader) throws IOException {
+        if (!enabled) {
+            return loader.load();
+        }
+        return get(cacheKey(filename, newDigest().digest(content)), loader);
+    }
+    
+    public ResultCacheStats stats() {
+        CacheStats stats = cache.synchronous().stats();
+        return ResultCacheStats.builder()
+                .enabled(enabled)
+                .size(cache.synchronous().estimatedSize())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .build();
+    }
+    
+    /**
+     * Drop every cached result, e.g. when the routing rules change
+     */
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+    
+    /**
+     * Cached results were routed with the old rules
+     */
+    @EventListener(RoutingService.RulesReloadedEvent.class)
+    public void onRulesReloaded() {
+        invalidateAll();
+    }
+    
+    /**
+     * The mapping function only installs an incomplete future; the caller that
+     * installed it runs the loader afterwards and completes it. A failed load is
+     * removed from the cache, and callers that were waiting for it load themselves.
+     */
+    private ClaimExtractionResult get(String key, ResultLoader loader) throws IOException {
+        while (true) {
+            CompletableFuture<ClaimExtractionResult> loading = new CompletableFuture<>();
+            CompletableFuture<ClaimExtractionResult> cached = cache.get(key, (k, executor) -> loading);
+            
+            if (cached != loading) {
+                try {
+                    return copyOf(cached.join());
+                } catch (CompletionException e) {
+                    // The cache drops the failed load too; don't wait for that to happen
+                    cache.asMap().remove(key, cached);
+                    continue;
+                }
+            }
+            
+            try {
+                ClaimExtractionResult result = loader.load();
+                loading.complete(copyOf(result));
+                return result;
+            } catch (IOException | RuntimeException | Error e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+    
+    /**
+     * Copy of a result that shares no mutable state with it
+     */
+    private static ClaimExtractionResult copyOf(ClaimExtractionResult result) {
+        ExtractedFields fields = result.getExtractedFields();
+        return result.toBuilder()
+                .extractedFields(fields == null ? null : fields.toBuilder()
+                        .thirdParties(copyOf(fields.getThirdParties()))
+                        .attachments(copyOf(fields.getAttachments()))
+                        .build())
+                .missingFields(copyOf(result.getMissingFields()))
+                .build();
+    }
+    
+    private static List<String> copyOf(List<String> list) {
+        return list == null ? null : new ArrayList<>(list);
+    }
+    
+    /**
+     * The same bytes parse differently as PDF and TXT, so the extension is part of the key
+     */
+    private static String cacheKey(String filename, byte[] hash) {
+        String extension = "";
+        if (filename != null && filename.lastIndexOf('.') >= 0) {
+            extension = filename.substring(filename.lastIndexOf('.') + 1).toLowerCase();
+        }
+        return extension + ":" + HexFormat.of().formatHex(hash);
+    }
+    
+    private static byte[] digest(InputStream in) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return digest.digest();
+    }
+    
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.insurance.claims.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.insurance.claims.dto.ClaimExtractionResult;
+import com.insurance.claims.dto.ClaimPage;
+import com.insurance.claims.dto.ExtractedFields;
+import com.insurance.claims.model.AssetDetails;
+import com.insurance.claims.model.Claim;
+import com.insurance.claims.model.IncidentInformation;
+import com.insurance.claims.model.InvolvedParty;
+import com.insurance.claims.model.PolicyInformation;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Service for storing processed claims in the embedded H2 database.
+ * 
+ * Each claim is stored as JSON together with copies of the fields it can be
+ * searched by (policy number, incident date, route), which are indexed.
+ */
+@Service
+public class ClaimStoreService {
+    
+    public static final int MAX_PAGE_SIZE = 100;
+    
+    private static final String INSERT = "INSERT INTO claims "
+            + "(claim_id, policy_number, incident_date, recommended_route, routing_rule, processed_at, claim_json) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private ObjectWriter claimWriter;
+    private ObjectReader claimReader;
+    private RowMapper<Claim> claimRowMapper;
+    
+    @PostConstruct
+    public void initMapper() {
+        claimWriter = objectMapper.writerFor(Claim.class).without(SerializationFeature.INDENT_OUTPUT);
+        claimReader = objectMapper.readerFor(Claim.class);
+        claimRowMapper = (rs, rowNum) -> readClaim(rs.getString("claim_json"));
+    }
+    
+    /**
+     * Store a processed claim
+     * @param filename Name of the processed document
+     * @param result Processing result
+     * @return ID of the stored claim
+     */
+    public String save(String filename, ClaimExtractionResult result) {
+        Claim claim = toClaim(filename, result);
+        claim.setClaimId(UUID.randomUUID().toString());
+        // Stored with millisecond precision so the JSON matches the column
+        claim.setProcessedAt(Instant.now().truncatedTo(ChronoUnit.MILLIS));
+        
+        PolicyInformation policy = claim.getPolicyInformation();
+        IncidentInformation incident = claim.getIncidentInformation();
+        jdbcTemplate.update(INSERT,
+                claim.getClaimId(),
+                policy.getPolicyNumber(),
+                incident.getIncidentDate() == null ? null : Date.valueOf(incident.getIncidentDate()),
+                claim.getRecommendedRoute(),
+                claim.getRoutingRule(),
+                Timestamp.from(claim.getProcessedAt()),
+                writeClaim(claim));
+        return claim.getClaimId();
+    }
+    
+    /**
+     * Get a stored claim by ID
+     */
+    public Optional<Claim> findById(String claimId) {
+        List<Claim> claims = jdbcTemplate.query("SELECT claim_json FROM claims WHERE claim_id = ?",
+                claimRowMapper, claimId);
+        return claims.stream().findFirst();
+    }
+    
+    /**
+     * Read the claims processed since the given time one by one, oldest first
+     */
+    public void forEachProcessedSince(Instant since, Consumer<Claim> action) {
+        RowCallbackHandler handler = rs -> action.accept(readClaim(rs.getString("claim_json")));
+        jdbcTemplate.query("SELECT claim_json FROM claims WHERE processed_at >= ? ORDER BY processed_at, claim_id",
+                handler, Timestamp.from(since));
+    }
+    
+    /**
+     * Search stored claims, newest first. All criteria are optional and combined.
+     * @param policyNumber Exact policy number
+     * @param route Exact recommended route
+     * @param incidentFrom First incident date (inclusive)
+     * @param incidentTo Last incident date (inclusive)
+     * @param page Page number, starting at 0
+     * @param size Page size, at most MAX_PAGE_SIZE
+     */
+    public ClaimPage search(String policyNumber, String route, LocalDate incidentFrom, LocalDate incidentTo,
+                            int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        
+        StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (policyNumber != null) {
+            where.append(" AND policy_number = ?");
+            args.add(policyNumber);
+        }
+        if (route != null) {
+            where.append(" AND recommended_route = ?");
+            args.add(route);
+        }
+        if (incidentFrom != null) {
+            where.append(" AND incident_date >= ?");
+            args.add(Date.valueOf(incidentFrom));
+        }
+        if (incidentTo != null) {
+            where.append(" AND incident_date <= ?");
+            args.add(Date.valueOf(incidentTo));
+        }
+        
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM claims" + where, Long.class, args.toArray());
+        long totalElements = total == null ? 0 : total;
+        
+        List<Object> pageArgs = new ArrayList<>(args);
+        pageArgs.add(size);
+        pageArgs.add((long) page * size);
+        List<Claim> content = jdbcTemplate.query(
+                "SELECT claim_json FROM claims" + where + " ORDER BY processed_at DESC, claim_id LIMIT ? OFFSET ?",
+                claimRowMapper, pageArgs.toArray());
+        
+        return ClaimPage.builder()
+                .content(content)
+                .page(page)
+                .size(size)
+                .totalElements(totalElements)
+                .totalPages((int) ((totalElements + size - 1) / size))
+                .build();
+    }
+    
+    /**
+     * Map a processing result into the Claim model
+     */
+    public static Claim toClaim(String filename, ClaimExtractionResult result) {
+        ExtractedFields fields = result.getExtractedFields();
+        
+        return Claim.builder()
+                .policyInformation(PolicyInformation.builder()
+                        .policyNumber(fields.getPolicyNumber())
+                        .policyholderName(fields.getPolicyholderName())
+                        .effectiveStartDate(fields.getEffectiveStartDate())
+                        .effectiveEndDate(fields.getEffectiveEndDate())
+                        .build())
+                .incidentInformation(IncidentInformation.builder()
+                        .incidentDate(fields.getIncidentDate())
+                        .incidentTime(fields.getIncidentTime())
+                        .location(fields.getLocation())
+                        .description(fields.getDescription())
+                        .build())
+                .involvedParty(InvolvedParty.builder()
+                        .claimantName(fields.getClaimantName())
+                        .thirdParties(fields.getThirdParties())
+                        .contactDetails(fields.getContactDetails())
+                        .build())
+                .assetDetails(AssetDetails.builder()
+                        .assetType(fields.getAssetType())
+                        .assetId(fields.getAssetId())
+                        .estimatedDamage(fields.getEstimatedDamage())
+                        .build())
+                .claimType(fields.getClaimType())
+                .attachments(fields.getAttachments())
+                .initialEstimate(fields.getInitialEstimate())
+                .filename(filename)
+                .missingFields(result.getMissingFields())
+                .recommendedRoute(result.getRecommendedRoute())
+                .routingRule(result.getRoutingRule())
+                .reasoning(result.getReasoning())
+                .build();
+    }
+    
+    private String writeClaim(Claim claim) {
+        try {
+            return claimWriter.writeValueAsString(claim);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private Claim readClaim(String json) {
+        try {
+            return claimReader.readValue(json);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,13 +1,28 @@
 package com.insurance.claims.service;
 
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Predicate;
 
 /**
  * Service for parsing PDF and TXT documents to extract raw text
@@ -15,43 +30,287 @@ import java.nio.charset.StandardCharsets;
 @Service
 public class DocumentParserService {
     
+    public static final String PDF = "pdf";
+    public static final String TXT = "txt";
+    
+    @Autowired
+    @Qualifier("pdfPageExecutor")
+    private AsyncTaskExecutor pdfPageExecutor;
+    
+    @Value("${claims.pdf.parallel.enabled:true}")
+    private boolean parallelEnabled;
+    
+    @Value("${claims.pdf.parallel.min-pages:16}")
+    private int parallelMinPages;
+    
+    @Value("${claims.pdf.parallel.pages-per-task:8}")
+    private int pagesPerTask;
+    
+    @Value("${claims.pdf.parallel.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int parallelThreads;
+    
+    @Value("${claims.pdf.early-exit.enabled:false}")
+    private boolean earlyExitEnabled;
+    
+    @Value("${claims.pdf.early-exit.max-pages:10}")
+    private int earlyExitMaxPages;
+    
+    /**
+     * Opens an independent PDDocument instance over the same PDF content
+     */
+    @FunctionalInterface
+    private interface PdfSource {
+        PDDocument open() throws IOException;
+    }
+    
     /**
-     * Parse document and extract raw text
+     * Parse document and extract raw text.
+     * The upload is never copied into a heap byte array: PDFs are read from a file
+     * and TXT uploads are decoded straight from the upload stream.
      * @param file Uploaded document (PDF or TXT)
      * @return Raw text content
      * @throws IOException if parsing fails
      */
     public String parseDocument(MultipartFile file) throws IOException {
-        String filename = file.getOriginalFilename();
+        return parseDocument(file, null).getText();
+    }
+    
+    /**
+     * Parse document and extract raw text, stopping early once the text is complete.
+     * With claims.pdf.early-exit.enabled, PDF pages are stripped one at a time and
+     * parsing stops as soon as isComplete accepts the text stripped so far, or at
+     * claims.pdf.early-exit.max-pages. TXT documents are always read in full.
+     * @param file Uploaded document (PDF or TXT)
+     * @param isComplete Tells whether the text so far holds everything needed, or null to parse everything
+     * @return Raw text content with its file type and page count
+     * @throws IOException if parsing fails
+     */
+    public ParsedDocument parseDocument(MultipartFile file, Predicate<String> isComplete) throws IOException {
+        String filename = requireFilename(file.getOriginalFilename());
         
-        if (filename == null) {
-            throw new IllegalArgumentException("File name cannot be null");
+        if (isPdf(filename)) {
+            return parsePdf(file, isComplete);
+        } else if (isTxt(filename)) {
+            return parseTxt(file);
+        } else {
+            throw unsupportedFormat();
         }
+    }
+    
+    /**
+     * Parse document content that is already in memory, e.g. an archive entry
+     * @param filename Document name, used to detect the format
+     * @param content Document bytes (PDF or TXT)
+     * @return Raw text content
+     * @throws IOException if parsing fails
+     */
+    public String parseDocument(String filename, byte[] content) throws IOException {
+        return parseDocument(filename, content, null).getText();
+    }
+    
+    /**
+     * Parse in-memory document content, stopping early once the text is complete
+     * @see #parseDocument(MultipartFile, Predicate)
+     */
+    public ParsedDocument parseDocument(String filename, byte[] content, Predicate<String> isComplete) throws IOException {
+        requireFilename(filename);
         
-        if (filename.toLowerCase().endsWith(".pdf")) {
-            return parsePdf(file);
-        } else if (filename.toLowerCase().endsWith(".txt")) {
-            return parseTxt(file);
+        if (isPdf(filename)) {
+            return parsePdf(content, isComplete);
+        } else if (isTxt(filename)) {
+            return parseTxt(content);
         } else {
-            throw new IllegalArgumentException("Unsupported file format. Only PDF and TXT files are supported.");
+            throw unsupportedFormat();
+        }
+    }
+    
+    /**
+     * Parse an uploaded PDF from disk.
+     * The multipart temp file is handed over to a private temp file and PDFBox reads
+     * it through a buffered random-access file. transferTo(File) with an absolute path
+     * goes through Part.write, which renames Tomcat's temp file when both are on the
+     * same file system and only copies it otherwise (transferTo(Path) always copies).
+     */
+    private ParsedDocument parsePdf(MultipartFile file, Predicate<String> isComplete) throws IOException {
+        Path pdf = Files.createTempFile("fnol-", ".pdf").toAbsolutePath();
+        try {
+            file.transferTo(pdf.toFile());
+            return stripText(() -> Loader.loadPDF(new RandomAccessReadBufferedFile(pdf.toFile())), isComplete);
+        } finally {
+            Files.deleteIfExists(pdf);
         }
     }
     
     /**
      * Parse PDF document using Apache PDFBox
      */
-    private String parsePdf(MultipartFile file) throws IOException {
-        try (PDDocument document = Loader.loadPDF(file.getBytes())) {
-            PDFTextStripper stripper = new PDFTextStripper();
-            return stripper.getText(document);
+    private ParsedDocument parsePdf(byte[] content, Predicate<String> isComplete) throws IOException {
+        // Loader wraps the array without copying, so every page-range task can share it
+        return stripText(() -> Loader.loadPDF(content), isComplete);
+    }
+    
+    /**
+     * Strip the text of a PDF. Documents with at least claims.pdf.parallel.min-pages
+     * pages are split into page ranges that are stripped concurrently, each on its own
+     * PDDocument instance (PDFBox documents are not thread-safe), and stitched back
+     * together in page order.
+     */
+    private ParsedDocument stripText(PdfSource source, Predicate<String> isComplete) throws IOException {
+        try (PDDocument document = source.open()) {
+            int pages = document.getNumberOfPages();
+            if (earlyExitEnabled && isComplete != null) {
+                return new ParsedDocument(stripUntilComplete(document, isComplete), PDF, pages);
+            }
+            if (!parallelEnabled || pages < parallelMinPages) {
+                return new ParsedDocument(stripPages(document, 1, pages), PDF, pages);
+            }
+            
+            int rangeSize = Math.max(pagesPerTask, (pages + parallelThreads - 1) / parallelThreads);
+            List<CompletableFuture<String>> ranges = new ArrayList<>();
+            for (int start = 1 + rangeSize; start <= pages; start += rangeSize) {
+                int first = start;
+                int last = Math.min(start + rangeSize - 1, pages);
+                ranges.add(CompletableFuture.supplyAsync(() -> stripPages(source, first, last), pdfPageExecutor));
+            }
+            
+            // The first range reuses the document that is already open on this thread
+            StringBuilder text = new StringBuilder(stripPages(document, 1, Math.min(rangeSize, pages)));
+            for (CompletableFuture<String> range : ranges) {
+                text.append(join(range));
+            }
+            return new ParsedDocument(text.toString(), PDF, pages);
+        }
+    }
+    
+    /**
+     * Strip one page at a time until the text is complete or the page cap is reached.
+     * isComplete must only accept text whose extracted fields cannot change when
+     * more pages are appended (FieldExtractionService.isComplete checks this), so
+     * stopping early gives the same fields as a full parse within the cap.
+     */
+    private String stripUntilComplete(PDDocument document, Predicate<String> isComplete) throws IOException {
+        int lastPage = Math.min(document.getNumberOfPages(), earlyExitMaxPages);
+        PDFTextStripper stripper = new PDFTextStripper();
+        StringBuilder text = new StringBuilder();
+        
+        for (int page = 1; page <= lastPage; page++) {
+            stripper.setStartPage(page);
+            stripper.setEndPage(page);
+            text.append(stripper.getText(document));
+            
+            if (isComplete.test(text.toString())) {
+                break;
+            }
+        }
+        return text.toString();
+    }
+    
+    private String stripPages(PdfSource source, int firstPage, int lastPage) {
+        try (PDDocument document = source.open()) {
+            return stripPages(document, firstPage, lastPage);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private String stripPages(PDDocument document, int firstPage, int lastPage) throws IOException {
+        PDFTextStripper stripper = new PDFTextStripper();
+        stripper.setStartPage(firstPage);
+        stripper.setEndPage(lastPage);
+        return stripper.getText(document);
+    }
+    
+    private static String join(CompletableFuture<String> range) throws IOException {
+        try {
+            return range.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw new IOException("Error stripping PDF page range", e.getCause());
         }
     }
     
+    /**
+     * Decode an uploaded TXT document straight from the upload stream
+     */
+    private ParsedDocument parseTxt(MultipartFile file) throws IOException {
+        StringBuilder text = new StringBuilder((int) Math.min(file.getSize(), Integer.MAX_VALUE - 8));
+        char[] buffer = new char[8192];
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                text.append(buffer, 0, read);
+            }
+        }
+        return new ParsedDocument(text.toString(), TXT, 1);
+    }
+    
     /**
      * Parse TXT document
      */
-    private String parseTxt(MultipartFile file) throws IOException {
-        return new String(file.getBytes(), StandardCharsets.UTF_8);
+    private ParsedDocument parseTxt(byte[] content) {
+        return new ParsedDocument(new String(content, StandardCharsets.UTF_8), TXT, 1);
+    }
+    
+    /**
+     * File type of a document as used in metrics and cache keys: pdf, txt or other
+     */
+    public static String fileType(String filename) {
+        if (filename != null && isPdf(filename)) {
+            return PDF;
+        } else if (filename != null && isTxt(filename)) {
+            return TXT;
+        }
+        return "other";
+    }
+    
+    private static String requireFilename(String filename) {
+        if (filename == null) {
+            throw new IllegalArgumentException("File name cannot be null");
+        }
+        return filename;
+    }
+    
+    private static boolean isPdf(String filename) {
+        return filename.toLowerCase().endsWith(".pdf");
+    }
+    
+    private static boolean isTxt(String filename) {
+        return filename.toLowerCase().endsWith(".txt");
+    }
+    
+    private static IllegalArgumentException unsupportedFormat() {
+        return new IllegalArgumentException("Unsupported file format. Only PDF and TXT files are supported.");
+    }
+    
+    /**
+     * Inner class to hold parsed text with the facts about its source document
+     */
+    public static class ParsedDocument {
+        private final String text;
+        private final String fileType;
+        private final int pageCount;
+        
+        public ParsedDocument(String text, String fileType, int pageCount) {
+            this.text = text;
+            this.fileType = fileType;
+            this.pageCount = pageCount;
+        }
+        
+        public String getText() {
+            return text;
+        }
+        
+        public String getFileType() {
+            return fileType;
+        }
+        
+        /**
+         * Total pages in the document (1 for TXT), including pages skipped by early exit
+         */
+        public int getPageCount() {
+            return pageCount;
+        }
     }
 }
-
@@ -0,0 +1,229 @@
+package com.insurance.claims.service;
+
+import com.insurance.claims.model.AssetDetails;
+import com.insurance.claims.model.Claim;
+import com.insurance.claims.model.ClaimFields;
+import com.insurance.claims.model.IncidentInformation;
+import com.insurance.claims.model.PolicyInformation;
+import com.insurance.claims.util.LongMultimap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * In-memory index of recently processed claims for detecting repeat submissions.
+ *
+ * A claim is a possible duplicate when an earlier claim on the same policy has the
+ * same asset ID or the same location (compared ignoring case, spaces and punctuation)
+ * and an incident date at most claims.duplicates.window-days apart.
+ *
+ * Claims are indexed by 64-bit hashes of policy+asset and policy+location in
+ * primitive hash maps, one per claims.duplicates.bucket-duration of submission time.
+ * Buckets older than claims.duplicates.retention are dropped as a whole, and the
+ * oldest buckets are dropped early once claims.duplicates.max-entries is reached,
+ * so memory stays bounded. On startup the index is filled with the claims stored
+ * within the retention, so claims processed before a restart are still found.
+ */
+@Service
+public class DuplicateClaimIndex {
+
+    public static final String SAME_ASSET = "same policy and asset";
+    public static final String SAME_LOCATION = "same policy and location";
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    @Autowired
+    private ClaimStoreService claimStoreService;
+
+    @Value("${claims.duplicates.window-days:30}")
+    private int windowDays;
+
+    @Value("${claims.duplicates.bucket-duration:1d}")
+    private Duration bucketDuration;
+
+    @Value("${claims.duplicates.retention:90d}")
+    private Duration retention;
+
+    @Value("${claims.duplicates.max-entries:1000000}")
+    private int maxEntries;
+
+    // Guarded by this; newest bucket last
+    private final Deque<Bucket> buckets = new ArrayDeque<>();
+    private int entries;
+
+    /**
+     * Earlier claim that a new claim may duplicate
+     */
+    public record Match(String basis, LocalDate incidentDate) {
+    }
+
+    /**
+     * Index the stored claims processed within claims.duplicates.retention, oldest first
+     */
+    @PostConstruct
+    public void loadStoredClaims() {
+        Instant since = Instant.now().minus(retention);
+        try {
+            claimStoreService.forEachProcessedSince(since, this::record);
+        } catch (RuntimeException e) {
+            // Log error but don't fail application startup
+            System.err.println("Warning: Could not index stored claims for duplicate detection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Look for an earlier duplicate of the claim and then index the claim itself.
+     * Claims without policy number or incident date are neither checked nor indexed.
+     *
+     * @return The earlier claim found, or null
+     */
+    public synchronized Match checkAndRecord(ClaimFields fields) {
+        if (!fields.has(ClaimFields.POLICY_NUMBER) || !fields.has(ClaimFields.INCIDENT_DATE)) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        evictExpired(now);
+
+        long assetKey = key(fields.getPolicyNumber(), "asset", fields.getAssetId());
+        long locationKey = key(fields.getPolicyNumber(), "location", fields.getLocation());
+        long incidentDay = fields.getIncidentDay();
+
+        Match match = null;
+        if (assetKey != 0) {
+            match = find(assetKey, incidentDay, SAME_ASSET);
+        }
+        if (match == null && locationKey != 0) {
+            match = find(locationKey, incidentDay, SAME_LOCATION);
+        }
+
+        record(assetKey, locationKey, incidentDay, now);
+        return match;
+    }
+
+    /**
+     * Index a stored claim under its processing time, without checking it.
+     * Claims must be recorded in processing order.
+     */
+    synchronized void record(Claim claim) {
+        PolicyInformation policy = claim.getPolicyInformation();
+        IncidentInformation incident = claim.getIncidentInformation();
+        AssetDetails asset = claim.getAssetDetails();
+        if (policy == null || policy.getPolicyNumber() == null || incident == null
+                || incident.getIncidentDate() == null || claim.getProcessedAt() == null) {
+            return;
+        }
+
+        record(key(policy.getPolicyNumber(), "asset", asset == null ? null : asset.getAssetId()),
+                key(policy.getPolicyNumber(), "location", incident.getLocation()),
+                incident.getIncidentDate().toEpochDay(),
+                claim.getProcessedAt().toEpochMilli());
+    }
+
+    public synchronized int size() {
+        return entries;
+    }
+
+    private Match find(long key, long incidentDay, String basis) {
+        for (Bucket bucket : buckets) {
+            long day = bucket.claims.findInRange(key, incidentDay - windowDays, incidentDay + windowDays);
+            if (day != Long.MIN_VALUE) {
+                return new Match(basis, LocalDate.ofEpochDay(day));
+            }
+        }
+        return null;
+    }
+
+    private void record(long assetKey, long locationKey, long incidentDay, long processedAt) {
+        LongMultimap bucket = currentBucket(processedAt);
+        if (assetKey != 0) {
+            bucket.put(assetKey, incidentDay);
+            entries++;
+        }
+        if (locationKey != 0) {
+            bucket.put(locationKey, incidentDay);
+            entries++;
+        }
+        enforceMaxEntries();
+    }
+
+    private LongMultimap currentBucket(long now) {
+        Bucket newest = buckets.peekLast();
+        if (newest == null || now - newest.start >= bucketDuration.toMillis()) {
+            newest = new Bucket(now);
+            buckets.addLast(newest);
+        }
+        return newest.claims;
+    }
+
+    private void evictExpired(long now) {
+        while (!buckets.isEmpty() && now - buckets.peekFirst().start >= retention.toMillis()) {
+            entries -= buckets.pollFirst().claims.size();
+        }
+    }
+
+    private void enforceMaxEntries() {
+        // The newest bucket is kept unless it alone exceeds the limit
+        while (entries > maxEntries && !buckets.isEmpty()) {
+            entries -= buckets.pollFirst().claims.size();
+        }
+    }
+
+    /**
+     * Key of a policy and asset ID or location, or 0 if the value has no letters or digits
+     */
+    private static long key(String policyNumber, String kind, String value) {
+        if (!hasLettersOrDigits(value)) {
+            return 0;
+        }
+        return hash(hash(hash(FNV_OFFSET, policyNumber), kind), value);
+    }
+
+    /**
+     * FNV-1a hash of the letters and digits of a value, case-insensitive, so that
+     * spacing and punctuation differences do not matter
+     */
+    private static long hash(long seed, String value) {
+        long h = seed;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                h ^= Character.toLowerCase(c);
+                h *= FNV_PRIME;
+            }
+        }
+        // Separator, so that ("ab", "c") and ("a", "bc") differ
+        h ^= 0xff;
+        h *= FNV_PRIME;
+        return h == 0 ? 1 : h;
+    }
+
+    private static boolean hasLettersOrDigits(String value) {
+        if (value == null) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.isLetterOrDigit(value.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Bucket {
+        private final long start;
+        private final LongMultimap claims = new LongMultimap(1024);
+
+        private Bucket(long start) {
+            this.start = start;
+        }
+    }
+}
@@ -1,18 +1,18 @@
 package com.insurance.claims.service;
 
 import com.insurance.claims.dto.ExtractedFields;
+import com.insurance.claims.model.ClaimFields;
+import com.insurance.claims.util.FieldValueParser;
+import com.insurance.claims.util.LabelIndex;
 import com.insurance.claims.util.RegexPatterns;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Service for extracting structured fields from raw text using regex patterns
@@ -20,169 +20,216 @@ import java.util.regex.Matcher;
 @Service
 public class FieldExtractionService {
     
-    private static final DateTimeFormatter[] DATE_FORMATTERS = {
-        DateTimeFormatter.ofPattern("MM/dd/yyyy"),
-        DateTimeFormatter.ofPattern("MM-dd-yyyy"),
-        DateTimeFormatter.ofPattern("M/d/yyyy"),
-        DateTimeFormatter.ofPattern("M-d-yyyy"),
-        DateTimeFormatter.ofPattern("MM/dd/yy"),
-        DateTimeFormatter.ofPattern("MM-dd-yy")
-    };
-    
-    private static final DateTimeFormatter[] TIME_FORMATTERS = {
-        DateTimeFormatter.ofPattern("HH:mm"),
-        DateTimeFormatter.ofPattern("h:mm a"),
-        DateTimeFormatter.ofPattern("h:mma")
-    };
+    /**
+     * Every field pattern with the label keywords it can start at
+     */
+    private static final List<FieldLabel> FIELD_LABELS = List.of(
+        new FieldLabel(RegexPatterns.POLICY_NUMBER, LabelIndex.POLICY),
+        new FieldLabel(RegexPatterns.POLICYHOLDER_NAME, LabelIndex.POLICY),
+        new FieldLabel(RegexPatterns.EFFECTIVE_DATES, LabelIndex.EFFECTIVE),
+        new FieldLabel(RegexPatterns.INCIDENT_DATE, LabelIndex.INCIDENT, LabelIndex.LOSS, LabelIndex.ACCIDENT),
+        new FieldLabel(RegexPatterns.INCIDENT_TIME, LabelIndex.INCIDENT, LabelIndex.LOSS, LabelIndex.ACCIDENT),
+        new FieldLabel(RegexPatterns.LOCATION, LabelIndex.LOCATION),
+        new FieldLabel(RegexPatterns.DESCRIPTION, LabelIndex.DESCRIPTION),
+        new FieldLabel(RegexPatterns.CLAIMANT_NAME, LabelIndex.CLAIM),
+        new FieldLabel(RegexPatterns.CONTACT_DETAILS, LabelIndex.CONTACT),
+        new FieldLabel(RegexPatterns.ASSET_TYPE, LabelIndex.ASSET),
+        new FieldLabel(RegexPatterns.ASSET_ID, LabelIndex.ASSET),
+        new FieldLabel(RegexPatterns.ESTIMATED_DAMAGE, LabelIndex.ESTIMATED),
+        new FieldLabel(RegexPatterns.CLAIM_TYPE, LabelIndex.CLAIM),
+        new FieldLabel(RegexPatterns.INITIAL_ESTIMATE, LabelIndex.INITIAL),
+        new FieldLabel(RegexPatterns.ATTACHMENTS, LabelIndex.ATTACHMENT)
+    );
+    
+    private record FieldLabel(Pattern pattern, int... keywordIds) {
+    }
     
     /**
-     * Extract all fields from raw document text
+     * Extract all fields from raw document text.
+     *
+     * The text is scanned once for the field label keywords; each field pattern is
+     * then only tried at the label positions it can start with.
      */
     public ExtractedFields extractFields(String rawText) {
-        return ExtractedFields.builder()
-            .policyNumber(extractPolicyNumber(rawText))
-            .policyholderName(extractPolicyholderName(rawText))
-            .effectiveStartDate(extractEffectiveStartDate(rawText))
-            .effectiveEndDate(extractEffectiveEndDate(rawText))
-            .incidentDate(extractIncidentDate(rawText))
-            .incidentTime(extractIncidentTime(rawText))
-            .location(extractLocation(rawText))
-            .description(extractDescription(rawText))
-            .claimantName(extractClaimantName(rawText))
-            .thirdParties(extractThirdParties(rawText))
-            .contactDetails(extractContactDetails(rawText))
-            .assetType(extractAssetType(rawText))
-            .assetId(extractAssetId(rawText))
-            .estimatedDamage(extractEstimatedDamage(rawText))
-            .claimType(extractClaimType(rawText))
-            .attachments(extractAttachments(rawText))
-            .initialEstimate(extractInitialEstimate(rawText))
-            .build();
-    }
-    
-    private String extractPolicyNumber(String text) {
-        Matcher matcher = RegexPatterns.POLICY_NUMBER.matcher(text);
-        return matcher.find() ? matcher.group(1).trim() : null;
-    }
-    
-    private String extractPolicyholderName(String text) {
-        Matcher matcher = RegexPatterns.POLICYHOLDER_NAME.matcher(text);
-        return matcher.find() ? matcher.group(1).trim() : null;
-    }
-    
-    private LocalDate extractEffectiveStartDate(String text) {
-        Matcher matcher = RegexPatterns.EFFECTIVE_DATES.matcher(text);
-        if (matcher.find()) {
-            return parseDate(matcher.group(1));
+        return extractClaimFields(rawText).toExtractedFields();
+    }
+    
+    /**
+     * Extract all fields into the compact form used by validation and routing;
+     * dates, times and amounts are not boxed until the DTO is built
+     */
+    public ClaimFields extractClaimFields(String rawText) {
+        LabelIndex labels = LabelIndex.scan(rawText);
+        ClaimFields fields = new ClaimFields();
+        
+        fields.setPolicyNumber(extractPolicyNumber(labels));
+        fields.setPolicyholderName(extractPolicyholderName(labels));
+        extractEffectiveDates(labels, fields);
+        extractIncidentDate(labels, fields);
+        extractIncidentTime(labels, fields);
+        fields.setLocation(extractLocation(labels));
+        fields.setDescription(extractDescription(labels));
+        fields.setClaimantName(extractClaimantName(labels));
+        fields.setThirdParties(extractThirdParties(labels));
+        fields.setContactDetails(extractContactDetails(labels));
+        fields.setAssetType(extractAssetType(labels));
+        fields.setAssetId(extractAssetId(labels));
+        extractEstimatedDamage(labels, fields);
+        fields.setClaimType(extractClaimType(labels));
+        fields.setAttachments(extractAttachments(labels));
+        extractInitialEstimate(labels, fields);
+        return fields;
+    }
+    
+    /**
+     * Check whether every field pattern, mandatory and optional, has a final match in
+     * the text, i.e. one that text appended later (e.g. further PDF pages) cannot
+     * change. A match that runs up to the end of the text, such as a description
+     * that may continue on the next page, does not count; see LabelIndex.findSettled.
+     */
+    public boolean isComplete(String rawText) {
+        LabelIndex labels = LabelIndex.scan(rawText);
+        for (FieldLabel field : FIELD_LABELS) {
+            if (!labels.findSettled(field.pattern().matcher(rawText), field.keywordIds())) {
+                return false;
+            }
         }
-        return null;
+        return true;
+    }
+    
+    private String extractPolicyNumber(LabelIndex labels) {
+        return findTrimmed(labels, RegexPatterns.POLICY_NUMBER, LabelIndex.POLICY);
+    }
+    
+    private String extractPolicyholderName(LabelIndex labels) {
+        return findTrimmed(labels, RegexPatterns.POLICYHOLDER_NAME, LabelIndex.POLICY);
     }
     
-    private LocalDate extractEffectiveEndDate(String text) {
-        Matcher matcher = RegexPatterns.EFFECTIVE_DATES.matcher(text);
-        if (matcher.find()) {
-            return parseDate(matcher.group(2));
+    /**
+     * Start and end date come from the same match, so the pattern is only run once
+     */
+    private void extractEffectiveDates(LabelIndex labels, ClaimFields fields) {
+        Matcher matcher = RegexPatterns.EFFECTIVE_DATES.matcher(labels.getText());
+        if (labels.find(matcher, LabelIndex.EFFECTIVE)) {
+            int startDay = parseEpochDay(labels, matcher, 1);
+            if (startDay != FieldValueParser.INVALID) {
+                fields.setEffectiveStartDay(startDay);
+            }
+            int endDay = parseEpochDay(labels, matcher, 2);
+            if (endDay != FieldValueParser.INVALID) {
+                fields.setEffectiveEndDay(endDay);
+            }
         }
-        return null;
     }
     
-    private LocalDate extractIncidentDate(String text) {
-        Matcher matcher = RegexPatterns.INCIDENT_DATE.matcher(text);
-        return matcher.find() ? parseDate(matcher.group(1)) : null;
+    private void extractIncidentDate(LabelIndex labels, ClaimFields fields) {
+        Matcher matcher = RegexPatterns.INCIDENT_DATE.matcher(labels.getText());
+        if (labels.find(matcher, LabelIndex.INCIDENT, LabelIndex.LOSS, LabelIndex.ACCIDENT)) {
+            int day = parseEpochDay(labels, matcher, 1);
+            if (day != FieldValueParser.INVALID) {
+                fields.setIncidentDay(day);
+            }
+        }
     }
     
-    private LocalTime extractIncidentTime(String text) {
-        Matcher matcher = RegexPatterns.INCIDENT_TIME.matcher(text);
-        return matcher.find() ? parseTime(matcher.group(1)) : null;
+    private void extractIncidentTime(LabelIndex labels, ClaimFields fields) {
+        Matcher matcher = RegexPatterns.INCIDENT_TIME.matcher(labels.getText());
+        if (labels.find(matcher, LabelIndex.INCIDENT, LabelIndex.LOSS, LabelIndex.ACCIDENT)) {
+            int minute = FieldValueParser.parseMinuteOfDay(labels.getText(), matcher.start(1), matcher.end(1));
+            if (minute != FieldValueParser.INVALID) {
+                fields.setIncidentMinute(minute);
+            }
+        }
     }
     
-    private String extractLocation(String text) {
-        Matcher matcher = RegexPatterns.LOCATION.matcher(text);
-        return matcher.find() ? matcher.group(1).trim() : null;
+    private String extractLocation(LabelIndex labels) {
+        return findTrimmed(labels, RegexPatterns.LOCATION, LabelIndex.LOCATION);
     }
     
-    private String extractDescription(String text) {
-        Matcher matcher = RegexPatterns.DESCRIPTION.matcher(text);
-        return matcher.find() ? matcher.group(1).trim() : null;
+    private String extractDescription(LabelIndex labels) {
+        // An optional "incident" prefix does not change the captured group
+        return findTrimmed(labels, RegexPatterns.DESCRIPTION, LabelIndex.DESCRIPTION);
     }
     
-    private String extractClaimantName(String text) {
-        Matcher matcher = RegexPatterns.CLAIMANT_NAME.matcher(text);
-        return matcher.find() ? matcher.group(1).trim() : null;
+    private String extractClaimantName(LabelIndex labels) {
+        return findTrimmed(labels, RegexPatterns.CLAIMANT_NAME, LabelIndex.CLAIM);
     }
     
-    private List<String> extractThirdParties(String text) {
+    private List<String> extractThirdParties(LabelIndex labels) {
         // Simple implementation - can be enhanced
         return new ArrayList<>();
     }
     
-    private String extractContactDetails(String text) {
-        Matcher matcher = RegexPatterns.CONTACT_DETAILS.matcher(text);
-        return matcher.find() ? matcher.group(1).trim() : null;
+    private String extractContactDetails(LabelIndex labels) {
+        return findTrimmed(labels, RegexPatterns.CONTACT_DETAILS, LabelIndex.CONTACT);
     }
     
-    private String extractAssetType(String text) {
-        Matcher matcher = RegexPatterns.ASSET_TYPE.matcher(text);
-        return matcher.find() ? matcher.group(1).trim() : null;
+    private String extractAssetType(LabelIndex labels) {
+        return findTrimmed(labels, RegexPatterns.ASSET_TYPE, LabelIndex.ASSET);
     }
     
-    private String extractAssetId(String text) {
-        Matcher matcher = RegexPatterns.ASSET_ID.matcher(text);
-        return matcher.find() ? matcher.group(1).trim() : null;
+    private String extractAssetId(LabelIndex labels) {
+        return findTrimmed(labels, RegexPatterns.ASSET_ID, LabelIndex.ASSET);
     }
     
-    private BigDecimal extractEstimatedDamage(String text) {
-        Matcher matcher = RegexPatterns.ESTIMATED_DAMAGE.matcher(text);
-        if (matcher.find()) {
-            String amount = matcher.group(1).replace(",", "");
-            return new BigDecimal(amount);
+    private void extractEstimatedDamage(LabelIndex labels, ClaimFields fields) {
+        Matcher matcher = RegexPatterns.ESTIMATED_DAMAGE.matcher(labels.getText());
+        if (labels.find(matcher, LabelIndex.ESTIMATED)) {
+            long unscaled = parseUnscaledAmount(labels, matcher);
+            if (unscaled == FieldValueParser.UNSUPPORTED_AMOUNT) {
+                fields.setEstimatedDamage(parseAmount(labels, matcher));
+            } else {
+                fields.setEstimatedDamage(unscaled, amountScale(labels, matcher));
+            }
         }
-        return null;
     }
     
-    private String extractClaimType(String text) {
-        Matcher matcher = RegexPatterns.CLAIM_TYPE.matcher(text);
-        return matcher.find() ? matcher.group(1).trim() : null;
+    private String extractClaimType(LabelIndex labels) {
+        return findTrimmed(labels, RegexPatterns.CLAIM_TYPE, LabelIndex.CLAIM);
     }
     
-    private List<String> extractAttachments(String text) {
-        Matcher matcher = RegexPatterns.ATTACHMENTS.matcher(text);
-        if (matcher.find()) {
+    private List<String> extractAttachments(LabelIndex labels) {
+        Matcher matcher = RegexPatterns.ATTACHMENTS.matcher(labels.getText());
+        if (labels.find(matcher, LabelIndex.ATTACHMENT)) {
             String attachmentsStr = matcher.group(1).trim();
             return Arrays.asList(attachmentsStr.split("[,;]"));
         }
         return new ArrayList<>();
     }
     
-    private BigDecimal extractInitialEstimate(String text) {
-        Matcher matcher = RegexPatterns.INITIAL_ESTIMATE.matcher(text);
-        if (matcher.find()) {
-            String amount = matcher.group(1).replace(",", "");
-            return new BigDecimal(amount);
+    private void extractInitialEstimate(LabelIndex labels, ClaimFields fields) {
+        Matcher matcher = RegexPatterns.INITIAL_ESTIMATE.matcher(labels.getText());
+        if (labels.find(matcher, LabelIndex.INITIAL)) {
+            long unscaled = parseUnscaledAmount(labels, matcher);
+            if (unscaled == FieldValueParser.UNSUPPORTED_AMOUNT) {
+                fields.setInitialEstimate(parseAmount(labels, matcher));
+            } else {
+                fields.setInitialEstimate(unscaled, amountScale(labels, matcher));
+            }
         }
-        return null;
     }
     
-    private LocalDate parseDate(String dateStr) {
-        for (DateTimeFormatter formatter : DATE_FORMATTERS) {
-            try {
-                return LocalDate.parse(dateStr, formatter);
-            } catch (DateTimeParseException e) {
-                // Try next formatter
-            }
-        }
-        return null;
+    private String findTrimmed(LabelIndex labels, Pattern pattern, int... keywordIds) {
+        Matcher matcher = pattern.matcher(labels.getText());
+        return labels.find(matcher, keywordIds) ? matcher.group(1).trim() : null;
     }
     
-    private LocalTime parseTime(String timeStr) {
-        for (DateTimeFormatter formatter : TIME_FORMATTERS) {
-            try {
-                return LocalTime.parse(timeStr.toUpperCase(), formatter);
-            } catch (DateTimeParseException e) {
-                // Try next formatter
-            }
-        }
-        return null;
+    /**
+     * Dates, times and amounts are parsed straight from the matched range of the text
+     */
+    private int parseEpochDay(LabelIndex labels, Matcher matcher, int group) {
+        return FieldValueParser.parseEpochDay(labels.getText(), matcher.start(group), matcher.end(group));
+    }
+    
+    private long parseUnscaledAmount(LabelIndex labels, Matcher matcher) {
+        return FieldValueParser.parseUnscaledAmount(labels.getText(), matcher.start(1), matcher.end(1));
+    }
+    
+    private int amountScale(LabelIndex labels, Matcher matcher) {
+        return FieldValueParser.amountScale(labels.getText(), matcher.start(1), matcher.end(1));
+    }
+    
+    private BigDecimal parseAmount(LabelIndex labels, Matcher matcher) {
+        return FieldValueParser.parseAmount(labels.getText(), matcher.start(1), matcher.end(1));
     }
 }
-
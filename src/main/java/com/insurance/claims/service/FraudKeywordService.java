@@ -0,0 +1,75 @@
+package com.insurance.claims.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurance.claims.model.FraudKeyword;
+import com.insurance.claims.util.KeywordAutomaton;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Service for detecting fraud indicators in claim descriptions.
+ * 
+ * The weighted fraud keywords are loaded from fraud-keywords.json (or
+ * claims.fraud.keywords-location) on startup and compiled into a
+ * {@link KeywordAutomaton}, so descriptions are scanned once for all terms.
+ */
+@Service
+public class FraudKeywordService {
+    
+    @Value("${claims.fraud.keywords-location:classpath:fraud-keywords.json}")
+    private Resource keywordsLocation;
+    
+    private KeywordAutomaton automaton;
+    
+    /**
+     * Load and compile the fraud keywords on application startup.
+     * Unlike the penalty data, a missing dictionary fails startup: routing would
+     * otherwise silently stop flagging suspicious claims.
+     */
+    @PostConstruct
+    public void loadFraudKeywords() throws IOException {
+        automaton = compile(readKeywords(keywordsLocation));
+    }
+    
+    /**
+     * Read weighted fraud keywords from a JSON resource
+     */
+    public static List<FraudKeyword> readKeywords(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            return new ObjectMapper().readValue(in, new TypeReference<List<FraudKeyword>>() {});
+        }
+    }
+    
+    /**
+     * Compile weighted keywords into a matcher
+     */
+    public static KeywordAutomaton compile(List<FraudKeyword> keywords) {
+        String[] terms = new String[keywords.size()];
+        double[] weights = new double[keywords.size()];
+        for (int i = 0; i < keywords.size(); i++) {
+            FraudKeyword keyword = keywords.get(i);
+            if (keyword.getTerm() == null || keyword.getTerm().isBlank()) {
+                throw new IllegalArgumentException("Fraud keyword " + (i + 1) + " has no term");
+            }
+            terms[i] = keyword.getTerm().trim();
+            weights[i] = keyword.getWeight();
+        }
+        return KeywordAutomaton.build(terms, weights);
+    }
+    
+    /**
+     * Find the fraud keywords in a claim description
+     * @param description Claim description (may be null)
+     * @return Matched terms and their total weight
+     */
+    public KeywordAutomaton.Match scan(String description) {
+        return automaton.scan(description);
+    }
+}
@@ -1,67 +1,150 @@
 package com.insurance.claims.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.insurance.claims.model.StateFraudPenalty;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
 
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
-import java.util.HashMap;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * Service for managing state-specific fraud penalty information
+ * Service for managing state-specific fraud penalty information.
+ *
+ * The penalties are loaded from fraud-penalties.json (or claims.fraud.penalties-location)
+ * into an immutable index keyed case-insensitively by state code. The JSON responses
+ * for the whole list and for each state are serialized once when the index is built,
+ * together with an ETag. When the penalties file is on the file system it is checked
+ * for changes periodically and the rebuilt index replaces the old one atomically.
  */
 @Service
 public class FraudPenaltyService {
     
-    private Map<String, StateFraudPenalty> fraudPenaltyMap = new HashMap<>();
+    /**
+     * Precomputed response for the has-criminal and has-civil checks
+     */
+    public static final PrecomputedJson TRUE = PrecomputedJson.of(Boolean.TRUE, "true");
+    public static final PrecomputedJson FALSE = PrecomputedJson.of(Boolean.FALSE, "false");
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${claims.fraud.penalties-location:classpath:fraud-penalties.json}")
+    private Resource penaltiesLocation;
+    
+    private final AtomicReference<PenaltyIndex> index = new AtomicReference<>();
+    private volatile long penaltiesLastModified;
+    
+    /**
+     * Response value with its JSON serialized up front, indented and compact, and a
+     * weak ETag shared by both since they only differ in whitespace
+     */
+    public record PrecomputedJson(Object value, byte[] pretty, byte[] compact, String etag) {
+        
+        private static PrecomputedJson of(Object value, String json) {
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            return new PrecomputedJson(value, bytes, bytes, etag(bytes));
+        }
+        
+        public byte[] content(boolean compact) {
+            return compact ? this.compact : pretty;
+        }
+        
+        private static String etag(byte[] json) {
+            return "W/\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+        }
+    }
     
     /**
-     * Load fraud penalty data from JSON file on application startup
+     * Load fraud penalty data on application startup
      */
     @PostConstruct
     public void loadFraudPenalties() {
+        index.set(PenaltyIndex.EMPTY);
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            ClassPathResource resource = new ClassPathResource("fraud-penalties.json");
+            penaltiesLastModified = lastModified();
+            index.set(buildIndex(readPenalties(penaltiesLocation)));
             
-            List<StateFraudPenalty> penalties = mapper.readValue(
-                resource.getInputStream(),
-                new TypeReference<List<StateFraudPenalty>>() {}
-            );
-            
-            // Build map for quick lookup by state code
-            for (StateFraudPenalty penalty : penalties) {
-                fraudPenaltyMap.put(penalty.getStateCode().toUpperCase(), penalty);
-            }
-            
-        } catch (IOException e) {
+        } catch (IOException | RuntimeException e) {
             // Log error but don't fail application startup
             System.err.println("Warning: Could not load fraud penalties data: " + e.getMessage());
         }
     }
     
+    /**
+     * Reload the penalties if the penalties file has changed. Invalid data is
+     * reported and the current index stays active.
+     */
+    @Scheduled(fixedDelayString = "${claims.fraud.penalties-reload-interval-ms:5000}")
+    public void reloadPenaltiesIfChanged() {
+        try {
+            long modified = lastModified();
+            if (modified == penaltiesLastModified) {
+                return;
+            }
+            // Remember the change even if it is invalid, so it is reported only once
+            penaltiesLastModified = modified;
+            index.set(buildIndex(readPenalties(penaltiesLocation)));
+            
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Warning: Could not reload fraud penalties, keeping current data: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Read fraud penalties from a JSON resource
+     */
+    public static List<StateFraudPenalty> readPenalties(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            return new ObjectMapper().readValue(in, new TypeReference<List<StateFraudPenalty>>() {});
+        }
+    }
+    
     /**
      * Get fraud penalty information for a specific state
-     * @param stateCode Two-letter state code (e.g., "CA", "NY")
+     * @param stateCode Two-letter state code (e.g., "CA", "NY"), in any case
      * @return StateFraudPenalty or null if not found
      */
     public StateFraudPenalty getPenaltyByState(String stateCode) {
-        if (stateCode == null || stateCode.isEmpty()) {
-            return null;
-        }
-        return fraudPenaltyMap.get(stateCode.toUpperCase());
+        PenaltyEntry entry = findEntry(stateCode);
+        return entry != null ? entry.penalty() : null;
     }
     
     /**
-     * Get all fraud penalties
+     * Precomputed JSON of the penalty for a state
+     * @return The response, or null if the state is not found
+     */
+    public PrecomputedJson getPenaltyJson(String stateCode) {
+        PenaltyEntry entry = findEntry(stateCode);
+        return entry != null ? entry.json() : null;
+    }
+    
+    /**
+     * Get all fraud penalties, in file order
      */
     public List<StateFraudPenalty> getAllPenalties() {
-        return fraudPenaltyMap.values().stream().toList();
+        return index.get().penalties();
+    }
+    
+    /**
+     * Precomputed JSON of all fraud penalties
+     */
+    public PrecomputedJson getAllPenaltiesJson() {
+        return index.get().allJson();
     }
     
     /**
@@ -79,5 +162,51 @@ public class FraudPenaltyService {
         StateFraudPenalty penalty = getPenaltyByState(stateCode);
         return penalty != null && penalty.isHasCivilPenalty();
     }
+    
+    private PenaltyEntry findEntry(String stateCode) {
+        if (stateCode == null || stateCode.isEmpty()) {
+            return null;
+        }
+        return index.get().byStateCode().get(stateCode);
+    }
+    
+    /**
+     * Index the penalties and serialize their responses with the application's Jackson settings
+     */
+    private PenaltyIndex buildIndex(List<StateFraudPenalty> penalties) throws JsonProcessingException {
+        NavigableMap<String, PenaltyEntry> byStateCode = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < penalties.size(); i++) {
+            StateFraudPenalty penalty = penalties.get(i);
+            if (penalty.getStateCode() == null || penalty.getStateCode().isBlank()) {
+                throw new IllegalArgumentException("Fraud penalty " + (i + 1) + " has no state code");
+            }
+            // A repeated state code replaces the earlier entry
+            byStateCode.put(penalty.getStateCode(), new PenaltyEntry(penalty, serialize(penalty)));
+        }
+        return new PenaltyIndex(List.copyOf(penalties), Collections.unmodifiableNavigableMap(byStateCode),
+                serialize(penalties));
+    }
+    
+    private PrecomputedJson serialize(Object value) throws JsonProcessingException {
+        byte[] pretty = objectMapper.writeValueAsBytes(value);
+        byte[] compact = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT).writeValueAsBytes(value);
+        return new PrecomputedJson(value, pretty, compact, PrecomputedJson.etag(compact));
+    }
+    
+    /**
+     * Modification time of the penalties file, or 0 if it is not a file (e.g. inside the jar)
+     */
+    private long lastModified() throws IOException {
+        return penaltiesLocation.isFile() ? penaltiesLocation.lastModified() : 0;
+    }
+    
+    private record PenaltyEntry(StateFraudPenalty penalty, PrecomputedJson json) {
+    }
+    
+    private record PenaltyIndex(List<StateFraudPenalty> penalties, NavigableMap<String, PenaltyEntry> byStateCode,
+                                PrecomputedJson allJson) {
+        
+        private static final PenaltyIndex EMPTY = new PenaltyIndex(List.of(),
+                Collections.emptyNavigableMap(), PrecomputedJson.of(List.of(), "[]"));
+    }
 }
-
@@ -0,0 +1,247 @@
+package com.insurance.claims.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.insurance.claims.dto.ExtractedFields;
+import com.insurance.claims.dto.ReplayReport;
+import com.insurance.claims.dto.RouteDiff;
+import com.insurance.claims.util.KeywordAutomaton;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Service for what-if routing: replays historical claims through the current routing
+ * configuration and a candidate one (rules and/or fraud keywords) and reports how the
+ * routes would change.
+ *
+ * The input is read line by line into chunks that are parsed and evaluated in parallel
+ * on the common fork/join pool; only a bounded window of chunks is in memory at a time.
+ */
+@Service
+public class RoutingReplayService {
+
+    @Autowired
+    private ValidationService validationService;
+
+    @Autowired
+    private RoutingService routingService;
+
+    @Autowired
+    private FraudKeywordService fraudKeywordService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${claims.replay.chunk-size:4096}")
+    private int chunkSize;
+
+    /**
+     * Replay claims through the current and the candidate configuration
+     *
+     * @param claims NDJSON stream of ExtractedFields, optionally gzip-compressed
+     * @param candidateRules Candidate routing rules, or null to keep the current rules
+     * @param candidateKeywords Candidate fraud keywords, or null to keep the current keywords
+     * @param maxDiffs Maximum number of changed claims listed in the report
+     * @return Route counts, route changes and the first diffs
+     * @throws IllegalArgumentException if the candidate configuration is invalid
+     */
+    public ReplayReport replay(InputStream claims, Resource candidateRules, Resource candidateKeywords,
+                               int maxDiffs) throws IOException {
+        // Snapshot the current rules so a hot reload during the replay does not skew it
+        RoutingRuleSet currentRules = routingService.getRuleSet();
+        Function<String, KeywordAutomaton.Match> currentScanner = fraudKeywordService::scan;
+
+        RoutingRuleSet rules = candidateRules == null
+                ? currentRules
+                : RoutingRuleSet.compile(RoutingService.readRules(candidateRules));
+        Function<String, KeywordAutomaton.Match> scanner = candidateKeywords == null
+                ? currentScanner
+                : FraudKeywordService.compile(FraudKeywordService.readKeywords(candidateKeywords))::scan;
+
+        ChunkEvaluator evaluator = new ChunkEvaluator(currentRules, currentScanner, rules, scanner, maxDiffs);
+        Tally total = new Tally();
+        Deque<CompletableFuture<Tally>> inFlight = new ArrayDeque<>();
+        int maxInFlight = 2 * ForkJoinPool.getCommonPoolParallelism();
+
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(decompress(claims), StandardCharsets.UTF_8))) {
+            long firstRecord = 1;
+            List<String> chunk = new ArrayList<>(chunkSize);
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                chunk.add(line);
+                if (chunk.size() == chunkSize) {
+                    submit(evaluator, chunk, firstRecord, inFlight);
+                    firstRecord += chunk.size();
+                    chunk = new ArrayList<>(chunkSize);
+
+                    // Backpressure: merge the oldest chunk before reading further
+                    if (inFlight.size() >= maxInFlight) {
+                        total.merge(join(inFlight.poll()), maxDiffs);
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submit(evaluator, chunk, firstRecord, inFlight);
+            }
+            while (!inFlight.isEmpty()) {
+                total.merge(join(inFlight.poll()), maxDiffs);
+            }
+        } finally {
+            inFlight.forEach(future -> future.cancel(false));
+        }
+
+        return total.toReport();
+    }
+
+    private static void submit(ChunkEvaluator evaluator, List<String> chunk, long firstRecord,
+                               Deque<CompletableFuture<Tally>> inFlight) {
+        inFlight.add(CompletableFuture.supplyAsync(() -> evaluator.evaluate(chunk, firstRecord)));
+    }
+
+    private static Tally join(CompletableFuture<Tally> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static InputStream decompress(InputStream claims) throws IOException {
+        InputStream in = new BufferedInputStream(claims);
+        in.mark(2);
+        boolean gzip = in.read() == 0x1f && in.read() == 0x8b;
+        in.reset();
+        return gzip ? new GzipCompressorInputStream(in) : in;
+    }
+
+    /**
+     * Parses a chunk of claims and routes them under both configurations
+     */
+    private final class ChunkEvaluator {
+        private final ObjectReader reader = objectMapper.readerFor(ExtractedFields.class);
+        private final RoutingRuleSet currentRules;
+        private final Function<String, KeywordAutomaton.Match> currentScanner;
+        private final RoutingRuleSet candidateRules;
+        private final Function<String, KeywordAutomaton.Match> candidateScanner;
+        private final int maxDiffs;
+
+        private ChunkEvaluator(RoutingRuleSet currentRules, Function<String, KeywordAutomaton.Match> currentScanner,
+                               RoutingRuleSet candidateRules, Function<String, KeywordAutomaton.Match> candidateScanner,
+                               int maxDiffs) {
+            this.currentRules = currentRules;
+            this.currentScanner = currentScanner;
+            this.candidateRules = candidateRules;
+            this.candidateScanner = candidateScanner;
+            this.maxDiffs = maxDiffs;
+        }
+
+        private Tally evaluate(List<String> chunk, long firstRecord) {
+            Tally tally = new Tally();
+            for (int i = 0; i < chunk.size(); i++) {
+                ExtractedFields fields = parse(chunk.get(i), firstRecord + i);
+
+                // Validation does not depend on the rules, so it runs once for both
+                int missingFields = validationService.findMissingFields(fields);
+                RoutingService.RoutingDecision current = currentRules.evaluate(fields, missingFields, currentScanner);
+                RoutingService.RoutingDecision candidate = candidateRules.evaluate(fields, missingFields, candidateScanner);
+
+                tally.total++;
+                tally.currentRoutes.merge(current.getRoute(), 1L, Long::sum);
+                tally.candidateRoutes.merge(candidate.getRoute(), 1L, Long::sum);
+                if (!current.getRoute().equals(candidate.getRoute())) {
+                    tally.changed++;
+                    tally.routeChanges.merge(current.getRoute() + " -> " + candidate.getRoute(), 1L, Long::sum);
+                    if (tally.diffs.size() < maxDiffs) {
+                        tally.diffs.add(RouteDiff.builder()
+                                .record(firstRecord + i)
+                                .policyNumber(fields.getPolicyNumber())
+                                .currentRoute(current.getRoute())
+                                .currentRule(current.getRuleId())
+                                .candidateRoute(candidate.getRoute())
+                                .candidateRule(candidate.getRuleId())
+                                .build());
+                    }
+                }
+            }
+            return tally;
+        }
+
+        private ExtractedFields parse(String line, long record) {
+            ExtractedFields fields;
+            try {
+                fields = reader.readValue(line);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Invalid claim JSON in record " + record + ": " + e.getOriginalMessage());
+            }
+            if (fields == null) {
+                throw new IllegalArgumentException("Claim " + record + " is null");
+            }
+            return fields;
+        }
+    }
+
+    /**
+     * Counts of one chunk, or of all chunks merged so far in input order
+     */
+    private static final class Tally {
+        private long total;
+        private long changed;
+        private final Map<String, Long> currentRoutes = new HashMap<>();
+        private final Map<String, Long> candidateRoutes = new HashMap<>();
+        private final Map<String, Long> routeChanges = new HashMap<>();
+        private final List<RouteDiff> diffs = new ArrayList<>();
+
+        private void merge(Tally chunk, int maxDiffs) {
+            total += chunk.total;
+            changed += chunk.changed;
+            chunk.currentRoutes.forEach((route, count) -> currentRoutes.merge(route, count, Long::sum));
+            chunk.candidateRoutes.forEach((route, count) -> candidateRoutes.merge(route, count, Long::sum));
+            chunk.routeChanges.forEach((change, count) -> routeChanges.merge(change, count, Long::sum));
+            for (RouteDiff diff : chunk.diffs) {
+                if (diffs.size() >= maxDiffs) {
+                    break;
+                }
+                diffs.add(diff);
+            }
+        }
+
+        private ReplayReport toReport() {
+            return ReplayReport.builder()
+                    .totalClaims(total)
+                    .changedClaims(changed)
+                    .currentRoutes(new TreeMap<>(currentRoutes))
+                    .candidateRoutes(new TreeMap<>(candidateRoutes))
+                    .routeChanges(new TreeMap<>(routeChanges))
+                    .diffs(diffs)
+                    .build();
+        }
+    }
+}
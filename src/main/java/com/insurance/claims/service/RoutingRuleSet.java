@@ -0,0 +1,219 @@
+package com.insurance.claims.service;
+
+import com.insurance.claims.dto.ExtractedFields;
+import com.insurance.claims.model.ClaimFields;
+import com.insurance.claims.model.RoutingRule;
+import com.insurance.claims.model.RuleCondition;
+import com.insurance.claims.util.KeywordAutomaton;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Immutable, compiled form of the routing rules.
+ *
+ * Each rule's condition is compiled once into a single predicate that only checks
+ * the criteria the rule actually sets. Rules are tried in order and the first one
+ * that holds decides the route. The description is scanned for fraud keywords at
+ * most once per claim, and only if a rule with a fraud criterion is reached.
+ * Claims are evaluated in their compact {@link ClaimFields} form; damage limits are
+ * compared against the unscaled amount without creating BigDecimals.
+ */
+public final class RoutingRuleSet {
+
+    private final CompiledRule[] rules;
+
+    private RoutingRuleSet(CompiledRule[] rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Compile and validate routing rules
+     * @throws IllegalArgumentException if a rule is incomplete, an ID is repeated or
+     *         the last rule is not a catch-all without condition
+     */
+    public static RoutingRuleSet compile(List<RoutingRule> rules) {
+        if (rules == null || rules.isEmpty()) {
+            throw new IllegalArgumentException("At least one routing rule is required");
+        }
+
+        Set<String> ids = new HashSet<>();
+        CompiledRule[] compiled = new CompiledRule[rules.size()];
+        for (int i = 0; i < rules.size(); i++) {
+            RoutingRule rule = rules.get(i);
+            if (isBlank(rule.getId()) || isBlank(rule.getRoute()) || isBlank(rule.getReason())) {
+                throw new IllegalArgumentException("Routing rule " + (i + 1) + " needs an id, a route and a reason");
+            }
+            if (!ids.add(rule.getId())) {
+                throw new IllegalArgumentException("Duplicate routing rule id: " + rule.getId());
+            }
+            compiled[i] = compileRule(rule);
+        }
+
+        if (!compiled[compiled.length - 1].catchAll) {
+            throw new IllegalArgumentException("The last routing rule must have no condition so every claim is routed");
+        }
+        return new RoutingRuleSet(compiled);
+    }
+
+    /**
+     * Route a claim that is not checked for duplicates (duplicateClaim conditions do not hold)
+     * @see #evaluate(ClaimFields, int, Function, DuplicateClaimIndex.Match)
+     */
+    public RoutingService.RoutingDecision evaluate(ExtractedFields extractedFields, int missingFields,
+                                                   Function<String, KeywordAutomaton.Match> fraudScanner) {
+        return evaluate(ClaimFields.from(extractedFields), missingFields, fraudScanner, null);
+    }
+
+    /**
+     * Route a claim given as the public DTO
+     * @see #evaluate(ClaimFields, int, Function, DuplicateClaimIndex.Match)
+     */
+    public RoutingService.RoutingDecision evaluate(ExtractedFields extractedFields, int missingFields,
+                                                   Function<String, KeywordAutomaton.Match> fraudScanner,
+                                                   DuplicateClaimIndex.Match duplicate) {
+        return evaluate(ClaimFields.from(extractedFields), missingFields, fraudScanner, duplicate);
+    }
+
+    /**
+     * Route a claim with the first matching rule
+     * @param claimFields The extracted fields from FNOL document
+     * @param missingFields Missing field mask from ValidationService.findMissingFields
+     * @param fraudScanner Scans a description for fraud keywords
+     * @param duplicate Earlier claim this one may duplicate, or null
+     * @return Routing decision with reasoning and the ID of the rule that fired
+     */
+    public RoutingService.RoutingDecision evaluate(ClaimFields claimFields, int missingFields,
+                                                   Function<String, KeywordAutomaton.Match> fraudScanner,
+                                                   DuplicateClaimIndex.Match duplicate) {
+        Claim claim = new Claim(claimFields, missingFields, fraudScanner, duplicate);
+
+        for (CompiledRule rule : rules) {
+            if (rule.condition.test(claim)) {
+                String reasoning = rule.reason;
+                if (rule.usesFraudScore) {
+                    KeywordAutomaton.Match match = claim.fraudMatch();
+                    reasoning += " (" + String.join(", ", match.terms())
+                            + "; score " + String.format(Locale.ROOT, "%.2f", match.score()) + ")";
+                }
+                if (rule.usesDuplicate && duplicate != null) {
+                    reasoning += " (" + duplicate.basis() + ", incident date " + duplicate.incidentDate() + ")";
+                }
+                return new RoutingService.RoutingDecision(rule.route, reasoning, rule.id);
+            }
+        }
+        // Unreachable: compile() requires a catch-all last rule
+        throw new IllegalStateException("No routing rule matched");
+    }
+
+    public int size() {
+        return rules.length;
+    }
+
+    private static CompiledRule compileRule(RoutingRule rule) {
+        RuleCondition when = rule.getWhen();
+        Predicate<Claim> condition = claim -> true;
+        boolean catchAll = true;
+        boolean usesFraudScore = false;
+        boolean usesDuplicate = false;
+
+        if (when != null) {
+            if (when.getMissingFields() != null) {
+                boolean missing = when.getMissingFields();
+                condition = condition.and(claim -> (claim.missingFields != 0) == missing);
+                catchAll = false;
+            }
+            if (when.getFraudScoreAtLeast() != null) {
+                double threshold = when.getFraudScoreAtLeast();
+                condition = condition.and(claim -> {
+                    KeywordAutomaton.Match match = claim.fraudMatch();
+                    return !match.isEmpty() && match.score() >= threshold;
+                });
+                catchAll = false;
+                usesFraudScore = true;
+            }
+            if (when.getDuplicateClaim() != null) {
+                boolean duplicate = when.getDuplicateClaim();
+                condition = condition.and(claim -> (claim.duplicate != null) == duplicate);
+                catchAll = false;
+                usesDuplicate = duplicate;
+            }
+            if (when.getClaimTypeContains() != null) {
+                String text = when.getClaimTypeContains().toLowerCase();
+                condition = condition.and(claim -> {
+                    String claimType = claim.fields.getClaimType();
+                    return claimType != null && claimType.toLowerCase().contains(text);
+                });
+                catchAll = false;
+            }
+            if (when.getEstimatedDamageBelow() != null) {
+                Predicate<ClaimFields> below = compareDamage(when.getEstimatedDamageBelow(), c -> c < 0);
+                condition = condition.and(claim -> below.test(claim.fields));
+                catchAll = false;
+            }
+            if (when.getEstimatedDamageAtLeast() != null) {
+                Predicate<ClaimFields> atLeast = compareDamage(when.getEstimatedDamageAtLeast(), c -> c >= 0);
+                condition = condition.and(claim -> atLeast.test(claim.fields));
+                catchAll = false;
+            }
+        }
+
+        return new CompiledRule(rule.getId(), rule.getRoute(), rule.getReason(), condition,
+                catchAll, usesFraudScore, usesDuplicate);
+    }
+
+    /**
+     * Test the estimated damage (false if missing) against a limit; the limit is split
+     * into an unscaled long and scale up front when it fits, as extracted amounts are
+     */
+    private static Predicate<ClaimFields> compareDamage(BigDecimal limit, IntPredicate accept) {
+        if (limit.scale() >= 0 && limit.precision() <= 18) {
+            long unscaled = limit.unscaledValue().longValue();
+            int scale = limit.scale();
+            return fields -> fields.has(ClaimFields.ESTIMATED_DAMAGE)
+                    && accept.test(fields.compareEstimatedDamage(unscaled, scale));
+        }
+        return fields -> fields.has(ClaimFields.ESTIMATED_DAMAGE)
+                && accept.test(fields.getEstimatedDamage().compareTo(limit));
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private record CompiledRule(String id, String route, String reason, Predicate<Claim> condition,
+                                boolean catchAll, boolean usesFraudScore, boolean usesDuplicate) {
+    }
+
+    /**
+     * Claim being routed; the fraud scan runs on first use
+     */
+    private static final class Claim {
+        private final ClaimFields fields;
+        private final int missingFields;
+        private final Function<String, KeywordAutomaton.Match> fraudScanner;
+        private final DuplicateClaimIndex.Match duplicate;
+        private KeywordAutomaton.Match fraudMatch;
+
+        private Claim(ClaimFields fields, int missingFields, Function<String, KeywordAutomaton.Match> fraudScanner,
+                      DuplicateClaimIndex.Match duplicate) {
+            this.fields = fields;
+            this.missingFields = missingFields;
+            this.fraudScanner = fraudScanner;
+            this.duplicate = duplicate;
+        }
+
+        private KeywordAutomaton.Match fraudMatch() {
+            if (fraudMatch == null) {
+                fraudMatch = fraudScanner.apply(fields.getDescription());
+            }
+            return fraudMatch;
+        }
+    }
+}
@@ -1,18 +1,33 @@
 package com.insurance.claims.service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.insurance.claims.dto.ExtractedFields;
-import com.insurance.claims.util.RegexPatterns;
-import com.insurance.claims.util.RoutingConstants;
+import com.insurance.claims.model.ClaimFields;
+import com.insurance.claims.model.RoutingRule;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
-import java.util.regex.Matcher;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * Service for routing claims based on business rules
+ * Service for routing claims based on business rules.
+ * 
+ * The rules are loaded from routing-rules.json (or claims.routing.rules-location) and
+ * compiled into a {@link RoutingRuleSet}. When the rules file is on the file system it
+ * is checked for changes periodically and the recompiled rules replace the old ones
+ * atomically: requests in flight finish with the rules they started with. A
+ * {@link RulesReloadedEvent} is published after each swap so that results routed with
+ * the old rules can be dropped.
  */
 @Service
 public class RoutingService {
@@ -20,79 +35,113 @@ public class RoutingService {
     @Autowired
     private ValidationService validationService;
     
+    @Autowired
+    private FraudKeywordService fraudKeywordService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${claims.routing.rules-location:classpath:routing-rules.json}")
+    private Resource rulesLocation;
+    
+    private final AtomicReference<RoutingRuleSet> ruleSet = new AtomicReference<>();
+    private volatile long rulesLastModified;
+    
+    /**
+     * Load the routing rules on application startup. Invalid rules fail startup.
+     */
+    @PostConstruct
+    public void loadRules() throws IOException {
+        rulesLastModified = lastModified();
+        ruleSet.set(RoutingRuleSet.compile(readRules(rulesLocation)));
+    }
+    
+    /**
+     * Reload the routing rules if the rules file has changed and publish a
+     * RulesReloadedEvent. Invalid rules are reported, the current rules stay active
+     * and no event is published.
+     */
+    @Scheduled(fixedDelayString = "${claims.routing.reload-interval-ms:5000}")
+    public void reloadRulesIfChanged() {
+        try {
+            long modified = lastModified();
+            if (modified == rulesLastModified) {
+                return;
+            }
+            // Remember the change even if it is invalid, so it is reported only once
+            rulesLastModified = modified;
+            ruleSet.set(RoutingRuleSet.compile(readRules(rulesLocation)));
+            eventPublisher.publishEvent(new RulesReloadedEvent(this));
+            
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Warning: Could not reload routing rules, keeping current rules: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Read routing rules from a JSON resource
+     */
+    public static List<RoutingRule> readRules(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            return new ObjectMapper().readValue(in, new TypeReference<List<RoutingRule>>() {});
+        }
+    }
+    
     /**
      * Determine the recommended route for a claim based on business rules
      * @param extractedFields The extracted fields from FNOL document
      * @return Routing decision with reasoning
      */
     public RoutingDecision determineRoute(ExtractedFields extractedFields) {
-        List<String> reasons = new ArrayList<>();
-        String route;
-        
-        // Rule 1: Check for missing mandatory fields (highest priority)
-        if (!validationService.hasAllMandatoryFields(extractedFields)) {
-            route = RoutingConstants.MANUAL_REVIEW;
-            reasons.add("Missing mandatory fields detected");
-            return new RoutingDecision(route, String.join("; ", reasons));
-        }
-        
-        // Rule 2: Check for fraud indicators
-        if (containsFraudKeywords(extractedFields.getDescription())) {
-            route = RoutingConstants.INVESTIGATION_FLAG;
-            reasons.add("Description contains fraud-related keywords");
-            return new RoutingDecision(route, String.join("; ", reasons));
-        }
-        
-        // Rule 3: Check for injury claims (requires specialist)
-        if (isInjuryClaim(extractedFields.getClaimType())) {
-            route = RoutingConstants.SPECIALIST_QUEUE;
-            reasons.add("Claim type is injury - requires specialist review");
-            return new RoutingDecision(route, String.join("; ", reasons));
-        }
-        
-        // Rule 4: Fast-track for low-value claims with all fields present
-        if (isFastTrackEligible(extractedFields.getEstimatedDamage())) {
-            route = RoutingConstants.FAST_TRACK;
-            reasons.add("Estimated damage below $25,000 threshold and all mandatory fields present");
-            return new RoutingDecision(route, String.join("; ", reasons));
-        }
-        
-        // Default: Manual review for high-value claims
-        route = RoutingConstants.MANUAL_REVIEW;
-        reasons.add("Estimated damage exceeds fast-track threshold - requires manual review");
-        return new RoutingDecision(route, String.join("; ", reasons));
+        return determineRoute(extractedFields, validationService.findMissingFields(extractedFields));
     }
     
     /**
-     * Check if description contains fraud-related keywords
+     * Determine the recommended route for a claim whose mandatory fields were already validated
+     * @param extractedFields The extracted fields from FNOL document
+     * @param missingFields Missing field mask from ValidationService.findMissingFields
+     * @return Routing decision with reasoning
      */
-    private boolean containsFraudKeywords(String description) {
-        if (description == null || description.isEmpty()) {
-            return false;
-        }
-        
-        Matcher matcher = RegexPatterns.FRAUD_KEYWORDS.matcher(description.toLowerCase());
-        return matcher.find();
+    public RoutingDecision determineRoute(ExtractedFields extractedFields, int missingFields) {
+        return ruleSet.get().evaluate(extractedFields, missingFields, fraudKeywordService::scan);
+    }
+    
+    /**
+     * Determine the recommended route for a claim that was checked against earlier submissions
+     * @param extractedFields The extracted fields from FNOL document
+     * @param missingFields Missing field mask from ValidationService.findMissingFields
+     * @param duplicate Earlier claim from DuplicateClaimIndex.checkAndRecord, or null
+     * @return Routing decision with reasoning
+     */
+    public RoutingDecision determineRoute(ExtractedFields extractedFields, int missingFields,
+                                          DuplicateClaimIndex.Match duplicate) {
+        return ruleSet.get().evaluate(extractedFields, missingFields, fraudKeywordService::scan, duplicate);
     }
     
     /**
-     * Check if claim type is injury
+     * Determine the recommended route for a claim in its compact form, as processed by the pipeline
+     * @param claimFields The extracted fields from FNOL document
+     * @param missingFields Missing field mask from ValidationService.findMissingFields
+     * @param duplicate Earlier claim from DuplicateClaimIndex.checkAndRecord, or null
+     * @return Routing decision with reasoning
      */
-    private boolean isInjuryClaim(String claimType) {
-        if (claimType == null) {
-            return false;
-        }
-        return claimType.toLowerCase().contains(RoutingConstants.CLAIM_TYPE_INJURY);
+    public RoutingDecision determineRoute(ClaimFields claimFields, int missingFields,
+                                          DuplicateClaimIndex.Match duplicate) {
+        return ruleSet.get().evaluate(claimFields, missingFields, fraudKeywordService::scan, duplicate);
     }
     
     /**
-     * Check if claim is eligible for fast-track processing
+     * Currently active routing rules
      */
-    private boolean isFastTrackEligible(BigDecimal estimatedDamage) {
-        if (estimatedDamage == null) {
-            return false;
-        }
-        return estimatedDamage.compareTo(RoutingConstants.FAST_TRACK_THRESHOLD) < 0;
+    public RoutingRuleSet getRuleSet() {
+        return ruleSet.get();
+    }
+    
+    /**
+     * Modification time of the rules file, or 0 if it is not a file (e.g. inside the jar)
+     */
+    private long lastModified() throws IOException {
+        return rulesLocation.isFile() ? rulesLocation.lastModified() : 0;
     }
     
     /**
@@ -101,10 +150,12 @@ public class RoutingService {
     public static class RoutingDecision {
         private final String route;
         private final String reasoning;
+        private final String ruleId;
         
-        public RoutingDecision(String route, String reasoning) {
+        public RoutingDecision(String route, String reasoning, String ruleId) {
             this.route = route;
             this.reasoning = reasoning;
+            this.ruleId = ruleId;
         }
         
         public String getRoute() {
@@ -114,6 +165,21 @@ public class RoutingService {
         public String getReasoning() {
             return reasoning;
         }
+        
+        public String getRuleId() {
+            return ruleId;
+        }
+    }
+    
+    /**
+     * Published after new routing rules have replaced the old ones
+     */
+    public static class RulesReloadedEvent extends ApplicationEvent {
+        
+        private static final long serialVersionUID = 1L;
+        
+        public RulesReloadedEvent(RoutingService source) {
+            super(source);
+        }
     }
 }
-
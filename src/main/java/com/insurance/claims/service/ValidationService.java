@@ -1,12 +1,14 @@
 package com.insurance.claims.service;
 
 import com.insurance.claims.dto.ExtractedFields;
+import com.insurance.claims.model.ClaimFields;
 import com.insurance.claims.util.RoutingConstants;
 import org.springframework.stereotype.Service;
 
-import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Service for validating extracted fields and identifying missing mandatory fields
@@ -15,42 +17,116 @@ import java.util.List;
 public class ValidationService {
     
     /**
-     * Identify missing mandatory fields from extracted data
-     * @param extractedFields The extracted fields from FNOL document
-     * @return List of missing mandatory field names
+     * Getters for every ExtractedFields property that can be declared mandatory
      */
-    public List<String> identifyMissingFields(ExtractedFields extractedFields) {
-        List<String> missingFields = new ArrayList<>();
+    private static final Map<String, Function<ExtractedFields, Object>> FIELD_ACCESSORS = Map.ofEntries(
+        Map.entry("policyNumber", ExtractedFields::getPolicyNumber),
+        Map.entry("policyholderName", ExtractedFields::getPolicyholderName),
+        Map.entry("effectiveStartDate", ExtractedFields::getEffectiveStartDate),
+        Map.entry("effectiveEndDate", ExtractedFields::getEffectiveEndDate),
+        Map.entry("incidentDate", ExtractedFields::getIncidentDate),
+        Map.entry("incidentTime", ExtractedFields::getIncidentTime),
+        Map.entry("location", ExtractedFields::getLocation),
+        Map.entry("description", ExtractedFields::getDescription),
+        Map.entry("claimantName", ExtractedFields::getClaimantName),
+        Map.entry("thirdParties", ExtractedFields::getThirdParties),
+        Map.entry("contactDetails", ExtractedFields::getContactDetails),
+        Map.entry("assetType", ExtractedFields::getAssetType),
+        Map.entry("assetId", ExtractedFields::getAssetId),
+        Map.entry("estimatedDamage", ExtractedFields::getEstimatedDamage),
+        Map.entry("claimType", ExtractedFields::getClaimType),
+        Map.entry("attachments", ExtractedFields::getAttachments),
+        Map.entry("initialEstimate", ExtractedFields::getInitialEstimate)
+    );
+    
+    // Accessor for bit i of the missing-field mask is mandatoryAccessors.get(i)
+    private final List<Function<ExtractedFields, Object>> mandatoryAccessors;
+    private final List<String> mandatoryFieldNames;
+    // ClaimFields presence bit for bit i of the missing-field mask, -1 for unknown fields
+    private final int[] mandatoryBits;
+    
+    /**
+     * Compile the mandatory field list into direct getter accessors once at startup
+     */
+    public ValidationService() {
+        if (RoutingConstants.MANDATORY_FIELDS.length > Integer.SIZE) {
+            throw new IllegalStateException("At most " + Integer.SIZE + " mandatory fields are supported");
+        }
         
-        for (String fieldName : RoutingConstants.MANDATORY_FIELDS) {
-            if (isFieldMissing(extractedFields, fieldName)) {
-                missingFields.add(fieldName);
+        List<Function<ExtractedFields, Object>> accessors = new ArrayList<>();
+        int[] bits = new int[RoutingConstants.MANDATORY_FIELDS.length];
+        for (int i = 0; i < bits.length; i++) {
+            String fieldName = RoutingConstants.MANDATORY_FIELDS[i];
+            // Unknown fields can never be resolved, so they are always reported missing
+            accessors.add(FIELD_ACCESSORS.getOrDefault(fieldName, fields -> null));
+            bits[i] = ClaimFields.bitOf(fieldName);
+        }
+        this.mandatoryBits = bits;
+        this.mandatoryAccessors = List.copyOf(accessors);
+        this.mandatoryFieldNames = List.of(RoutingConstants.MANDATORY_FIELDS);
+    }
+    
+    /**
+     * Find missing mandatory fields as a bitmask.
+     * Bit i is set when RoutingConstants.MANDATORY_FIELDS[i] is missing.
+     * @param extractedFields The extracted fields from FNOL document
+     * @return Missing field mask, 0 if all mandatory fields are present
+     */
+    public int findMissingFields(ExtractedFields extractedFields) {
+        int missing = 0;
+        for (int i = 0; i < mandatoryAccessors.size(); i++) {
+            if (mandatoryAccessors.get(i).apply(extractedFields) == null) {
+                missing |= 1 << i;
             }
         }
-        
-        return missingFields;
+        return missing;
+    }
+    
+    /**
+     * Find missing mandatory fields as a bitmask from the presence set of the compact fields
+     * @see #findMissingFields(ExtractedFields)
+     */
+    public int findMissingFields(ClaimFields claimFields) {
+        int present = claimFields.getPresent();
+        int missing = 0;
+        for (int i = 0; i < mandatoryBits.length; i++) {
+            if (mandatoryBits[i] < 0 || (present & (1 << mandatoryBits[i])) == 0) {
+                missing |= 1 << i;
+            }
+        }
+        return missing;
     }
     
     /**
-     * Check if a specific field is missing or null
+     * Resolve a missing field mask to mandatory field names, in declaration order
      */
-    private boolean isFieldMissing(ExtractedFields extractedFields, String fieldName) {
-        try {
-            Field field = ExtractedFields.class.getDeclaredField(fieldName);
-            field.setAccessible(true);
-            Object value = field.get(extractedFields);
-            return value == null;
-        } catch (NoSuchFieldException | IllegalAccessException e) {
-            // If field doesn't exist or can't be accessed, consider it missing
-            return true;
+    public List<String> toFieldNames(int missingFields) {
+        if (missingFields == 0) {
+            return new ArrayList<>();
         }
+        
+        List<String> names = new ArrayList<>(Integer.bitCount(missingFields));
+        for (int i = 0; i < mandatoryFieldNames.size(); i++) {
+            if ((missingFields & (1 << i)) != 0) {
+                names.add(mandatoryFieldNames.get(i));
+            }
+        }
+        return names;
+    }
+    
+    /**
+     * Identify missing mandatory fields from extracted data
+     * @param extractedFields The extracted fields from FNOL document
+     * @return List of missing mandatory field names
+     */
+    public List<String> identifyMissingFields(ExtractedFields extractedFields) {
+        return toFieldNames(findMissingFields(extractedFields));
     }
     
     /**
      * Check if all mandatory fields are present
      */
     public boolean hasAllMandatoryFields(ExtractedFields extractedFields) {
-        return identifyMissingFields(extractedFields).isEmpty();
+        return findMissingFields(extractedFields) == 0;
     }
 }
-
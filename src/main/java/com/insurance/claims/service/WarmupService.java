@@ -0,0 +1,164 @@
+package com.insurance.claims.service;
+
+import com.insurance.claims.model.ClaimFields;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.FontMappers;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Warms up the claim pipeline at startup, before the application reports readiness.
+ *
+ * The bundled sample documents (packaged under warmup/) and a generated multi-page
+ * PDF are run through parse, extract, validate and route repeatedly, so the regex
+ * and extraction paths are JIT-compiled and the PDFBox font cache is built before
+ * the first real request. The pipeline services are called directly: warm-up claims
+ * are not stored, indexed for duplicates, cached or counted in the claim metrics.
+ *
+ * Spring Boot only switches readiness to ACCEPTING_TRAFFIC after all application
+ * runners have finished, so /actuator/health/readiness stays down until warm-up is done.
+ */
+@Service
+public class WarmupService implements ApplicationRunner {
+
+    @Autowired
+    private DocumentParserService documentParserService;
+
+    @Autowired
+    private FieldExtractionService fieldExtractionService;
+
+    @Autowired
+    private ValidationService validationService;
+
+    @Autowired
+    private RoutingService routingService;
+
+    @Autowired
+    private ClaimMetricsService metricsService;
+
+    @Autowired
+    private ResourcePatternResolver resourceResolver;
+
+    @Value("${claims.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${claims.warmup.documents:classpath*:warmup/*.txt}")
+    private String documentsPattern;
+
+    @Value("${claims.warmup.pdf-pages:20}")
+    private int pdfPages;
+
+    @Value("${claims.warmup.iterations:50}")
+    private int iterations;
+
+    @Value("${claims.warmup.max-duration:30s}")
+    private Duration maxDuration;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + maxDuration.toNanos();
+
+        // Scans the system fonts once and caches the result; PDFs with non-embedded fonts need it
+        FontMappers.instance().getFontBoxFont(Standard14Fonts.FontName.HELVETICA.getName(), null);
+
+        Map<String, byte[]> documents = loadDocuments();
+        for (int i = 0; i < iterations && System.nanoTime() < deadline; i++) {
+            for (Map.Entry<String, byte[]> document : documents.entrySet()) {
+                runPipeline(document.getKey(), document.getValue());
+            }
+        }
+
+        metricsService.recordWarmup(Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private void runPipeline(String filename, byte[] content) {
+        try {
+            String rawText = documentParserService
+                    .parseDocument(filename, content, fieldExtractionService::isComplete).getText();
+            ClaimFields claimFields = fieldExtractionService.extractClaimFields(rawText);
+            int missingFields = validationService.findMissingFields(claimFields);
+            routingService.determineRoute(claimFields, missingFields, null);
+            claimFields.toExtractedFields();
+        } catch (Exception e) {
+            System.err.println("Warning: Warm-up failed for " + filename + ": " + e.getMessage());
+        }
+    }
+
+    private Map<String, byte[]> loadDocuments() {
+        Map<String, byte[]> documents = new LinkedHashMap<>();
+        try {
+            for (Resource resource : resourceResolver.getResources(documentsPattern)) {
+                documents.put(resource.getFilename(), resource.getContentAsByteArray());
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Could not load warm-up documents: " + e.getMessage());
+        }
+
+        if (pdfPages > 0) {
+            try {
+                String text = documents.isEmpty() ? "" : new String(documents.values().iterator().next(), StandardCharsets.UTF_8);
+                documents.put("warmup.pdf", generatePdf(text, pdfPages));
+            } catch (IOException e) {
+                System.err.println("Warning: Could not generate warm-up PDF: " + e.getMessage());
+            }
+        }
+        return documents;
+    }
+
+    /**
+     * Generate a PDF with the text on every page, so that both sequential and
+     * page-parallel extraction are exercised
+     */
+    private static byte[] generatePdf(String text, int pages) throws IOException {
+        // Helvetica without embedding only covers WinAnsi; keep to printable ASCII
+        List<String> lines = new ArrayList<>();
+        for (String line : text.split("\\R")) {
+            lines.add(line.replaceAll("[^\\x20-\\x7E]", "?"));
+        }
+
+        try (PDDocument document = new PDDocument();
+             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            for (int i = 0; i < pages; i++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(font, 10);
+                    content.setLeading(14);
+                    content.newLineAtOffset(50, 740);
+                    for (String line : lines) {
+                        content.showText(line);
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.insurance.claims.util;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.Year;
+
+/**
+ * Parsers for the date, time and amount values captured by {@link RegexPatterns}.
+ *
+ * They read straight from a character range of the document text and report an
+ * unparseable value as null instead of throwing. For the shapes the patterns capture
+ * ({@code \d{1,2}[/-]\d{1,2}[/-]\d{2,4}} and {@code \d{1,2}:\d{2}\s*(?:AM|PM)?})
+ * they accept exactly what these formatters accept with the default SMART resolver
+ * and return the same values:
+ * <ul>
+ *   <li>dates: {@code MM/dd/yyyy}, {@code M/d/yyyy}, {@code MM/dd/yy} and the same with '-'</li>
+ *   <li>times: {@code HH:mm}, {@code h:mm a}, {@code h:mma} (AM/PM in any case)</li>
+ * </ul>
+ */
+public final class FieldValueParser {
+
+    private FieldValueParser() {
+    }
+
+    /**
+     * Returned by {@link #parseEpochDay} and {@link #parseMinuteOfDay} for values that do not parse
+     */
+    public static final int INVALID = Integer.MIN_VALUE;
+
+    /**
+     * Returned by {@link #parseUnscaledAmount} for amounts it does not parse itself;
+     * {@link #parseAmount} handles those
+     */
+    public static final long UNSUPPORTED_AMOUNT = Long.MIN_VALUE;
+
+    // LocalDate.of(1970, 1, 1) counted in days from 0000-01-01
+    private static final int DAYS_0000_TO_1970 = 719_528;
+
+    /**
+     * Parse a month/day/year date
+     *
+     * @return The date, or null if the range is not a valid date
+     */
+    public static LocalDate parseDate(CharSequence text, int start, int end) {
+        int epochDay = parseEpochDay(text, start, end);
+        return epochDay == INVALID ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * Parse a month/day/year date without allocating
+     *
+     * @return Days since 1970-01-01, or {@link #INVALID}
+     */
+    public static int parseEpochDay(CharSequence text, int start, int end) {
+        int monthEnd = digitsEnd(text, start, end);
+        if (monthEnd - start < 1 || monthEnd - start > 2 || monthEnd == end) {
+            return INVALID;
+        }
+        char separator = text.charAt(monthEnd);
+        if (separator != '/' && separator != '-') {
+            return INVALID;
+        }
+        int dayStart = monthEnd + 1;
+        int dayEnd = digitsEnd(text, dayStart, end);
+        if (dayEnd - dayStart < 1 || dayEnd - dayStart > 2 || dayEnd == end || text.charAt(dayEnd) != separator) {
+            return INVALID;
+        }
+        int yearStart = dayEnd + 1;
+        int yearEnd = digitsEnd(text, yearStart, end);
+        if (yearEnd != end) {
+            return INVALID;
+        }
+
+        int year = toInt(text, yearStart, yearEnd);
+        int yearDigits = yearEnd - yearStart;
+        if (yearDigits == 2) {
+            // yy is a two-digit year in 2000-2099 and only comes with MM and dd
+            if (monthEnd - start != 2 || dayEnd - dayStart != 2) {
+                return INVALID;
+            }
+            year += 2000;
+        } else if (yearDigits != 4 || year == 0) {
+            return INVALID;
+        }
+
+        int month = toInt(text, start, monthEnd);
+        int day = toInt(text, dayStart, dayEnd);
+        if (month < 1 || month > 12 || day < 1 || day > 31) {
+            return INVALID;
+        }
+        // Like the SMART resolver, a day past the end of the month means its last day
+        boolean leap = Year.isLeap(year);
+        return toEpochDay(year, month, Math.min(day, Month.of(month).length(leap)), leap);
+    }
+
+    /**
+     * Parse a 24-hour or AM/PM time
+     *
+     * @return The time, or null if the range is not a valid time
+     */
+    public static LocalTime parseTime(CharSequence text, int start, int end) {
+        int minuteOfDay = parseMinuteOfDay(text, start, end);
+        return minuteOfDay == INVALID ? null : LocalTime.of(minuteOfDay / 60, minuteOfDay % 60);
+    }
+
+    /**
+     * Parse a 24-hour or AM/PM time without allocating
+     *
+     * @return Minutes since midnight, or {@link #INVALID}
+     */
+    public static int parseMinuteOfDay(CharSequence text, int start, int end) {
+        int hourEnd = digitsEnd(text, start, end);
+        if (hourEnd - start < 1 || hourEnd - start > 2 || hourEnd == end || text.charAt(hourEnd) != ':') {
+            return INVALID;
+        }
+        int minuteStart = hourEnd + 1;
+        int minuteEnd = digitsEnd(text, minuteStart, end);
+        if (minuteEnd - minuteStart != 2) {
+            return INVALID;
+        }
+        int hour = toInt(text, start, hourEnd);
+        int minute = toInt(text, minuteStart, minuteEnd);
+        if (minute > 59) {
+            return INVALID;
+        }
+
+        if (minuteEnd == end) {
+            // HH:mm; the SMART resolver reads 24:00 as midnight
+            if (hourEnd - start != 2 || hour > 24 || (hour == 24 && minute != 0)) {
+                return INVALID;
+            }
+            return hour % 24 * 60 + minute;
+        }
+
+        // h:mm a or h:mma; clock hour 0 is accepted like 12
+        int markerStart = text.charAt(minuteEnd) == ' ' ? minuteEnd + 1 : minuteEnd;
+        if (end - markerStart != 2 || hour > 12) {
+            return INVALID;
+        }
+        char half = Character.toUpperCase(text.charAt(markerStart));
+        if ((half != 'A' && half != 'P') || Character.toUpperCase(text.charAt(markerStart + 1)) != 'M') {
+            return INVALID;
+        }
+        return (hour % 12 + (half == 'P' ? 12 : 0)) * 60 + minute;
+    }
+
+    /**
+     * Parse an amount like {@code new BigDecimal(value.replace(",", ""))} does,
+     * e.g. {@code 12,500.00}; commas are ignored wherever they are
+     *
+     * @throws NumberFormatException if the range is not a number
+     */
+    public static BigDecimal parseAmount(CharSequence text, int start, int end) {
+        long unscaled = parseUnscaledAmount(text, start, end);
+        if (unscaled == UNSUPPORTED_AMOUNT) {
+            return new BigDecimal(text.subSequence(start, end).toString().replace(",", ""));
+        }
+        return BigDecimal.valueOf(unscaled, amountScale(text, start, end));
+    }
+
+    /**
+     * Parse an amount of ASCII digits, commas and at most one decimal point without
+     * allocating; its value is the result times 10^-{@link #amountScale}
+     *
+     * @return The unscaled amount, or {@link #UNSUPPORTED_AMOUNT} for any other amount
+     *         (no digits, signs, exponents) and beyond 18 significant digits
+     */
+    public static long parseUnscaledAmount(CharSequence text, int start, int end) {
+        long unscaled = 0;
+        int significantDigits = 0;
+        boolean anyDigit = false;
+        boolean fraction = false;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (isDigit(c)) {
+                if (significantDigits == 18) {
+                    // Beyond what a long holds exactly
+                    return UNSUPPORTED_AMOUNT;
+                }
+                unscaled = unscaled * 10 + (c - '0');
+                if (unscaled != 0) {
+                    significantDigits++;
+                }
+                anyDigit = true;
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else if (c != ',') {
+                return UNSUPPORTED_AMOUNT;
+            }
+        }
+        return anyDigit ? unscaled : UNSUPPORTED_AMOUNT;
+    }
+
+    /**
+     * Number of digits after the decimal point of an amount
+     */
+    public static int amountScale(CharSequence text, int start, int end) {
+        int scale = 0;
+        boolean fraction = false;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '.') {
+                fraction = true;
+            } else if (fraction && isDigit(c)) {
+                scale++;
+            }
+        }
+        return scale;
+    }
+
+    /**
+     * Same as LocalDate.of(year, month, day).toEpochDay() for a valid date
+     */
+    private static int toEpochDay(int year, int month, int day, boolean leap) {
+        int total = 365 * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12 + day - 1;
+        if (month > 2) {
+            total -= leap ? 1 : 2;
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * End of the run of ASCII digits at start
+     */
+    private static int digitsEnd(CharSequence text, int start, int end) {
+        int i = start;
+        while (i < end && isDigit(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int toInt(CharSequence text, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
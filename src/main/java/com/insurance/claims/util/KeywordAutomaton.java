@@ -0,0 +1,284 @@
+package com.insurance.claims.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Aho-Corasick automaton that finds whole-word occurrences of many terms in a
+ * single pass over the text.
+ *
+ * The goto and failure functions are folded into one dense transition table over
+ * the characters that occur in the terms (every other character maps to symbol 0,
+ * which always leads back to the root), so scanning costs one array lookup per
+ * character. Matching is case-insensitive, with the same result as lower-casing the
+ * text with {@code String.toLowerCase(Locale.ROOT)}, and nothing is allocated unless
+ * a term is found.
+ *
+ * Like the regex {@code \b} boundary, a term only matches when the characters
+ * around it are not word characters: a letter, digit or underscore (by code point),
+ * or a non-spacing mark attached to a letter or digit.
+ */
+public final class KeywordAutomaton {
+
+    public static final Match NO_MATCH = new Match(List.of(), 0);
+
+    private static final int[] NO_OUTPUT = new int[0];
+
+    private final String[] terms;
+    private final double[] weights;
+    private final int[] termLengths;
+
+    // Symbol of each ASCII character; non-ASCII symbols are looked up in otherChars
+    private final int[] asciiSymbols = new int[128];
+    private final char[] otherChars;
+    private final int[] otherSymbols;
+    private final int alphabetSize;
+
+    // transitions[state * alphabetSize + symbol] is the next state
+    private final int[] transitions;
+    // Terms ending at each state, including those reached through failure links
+    private final int[][] outputs;
+
+    private KeywordAutomaton(String[] terms, double[] weights) {
+        this.terms = terms;
+        this.weights = weights;
+        this.termLengths = new int[terms.length];
+
+        // Alphabet: every distinct (lower case) character of the terms, symbols from 1
+        TreeSet<Character> alphabet = new TreeSet<>();
+        int totalLength = 0;
+        for (int id = 0; id < terms.length; id++) {
+            String term = terms[id];
+            if (term.isEmpty()) {
+                throw new IllegalArgumentException("Keyword must not be empty");
+            }
+            termLengths[id] = term.length();
+            totalLength += term.length();
+            for (int i = 0; i < term.length(); i++) {
+                alphabet.add(toLowerCase(term.charAt(i)));
+            }
+        }
+
+        List<Character> others = new ArrayList<>();
+        int symbol = 1;
+        for (char c : alphabet) {
+            if (c < 128) {
+                asciiSymbols[c] = symbol++;
+            } else {
+                others.add(c);
+            }
+        }
+        otherChars = new char[others.size()];
+        otherSymbols = new int[others.size()];
+        for (int i = 0; i < others.size(); i++) {
+            otherChars[i] = others.get(i);
+            otherSymbols[i] = symbol++;
+        }
+        alphabetSize = symbol;
+
+        // Trie (goto function); -1 marks a missing edge
+        int[] table = new int[(totalLength + 1) * alphabetSize];
+        Arrays.fill(table, -1);
+        int[][] out = new int[totalLength + 1][];
+        int states = 1;
+        for (int id = 0; id < terms.length; id++) {
+            int state = 0;
+            String term = terms[id];
+            for (int i = 0; i < term.length(); i++) {
+                int edge = state * alphabetSize + symbolOf(toLowerCase(term.charAt(i)));
+                if (table[edge] < 0) {
+                    table[edge] = states++;
+                }
+                state = table[edge];
+            }
+            out[state] = append(out[state], id);
+        }
+
+        // Breadth-first pass computing failure links and completing the transition table
+        int[] fail = new int[states];
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+        for (int s = 0; s < alphabetSize; s++) {
+            int child = table[s];
+            if (child < 0) {
+                table[s] = 0;
+            } else {
+                fail[child] = 0;
+                queue[tail++] = child;
+            }
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            out[state] = merge(out[state], out[fail[state]]);
+            for (int s = 0; s < alphabetSize; s++) {
+                int edge = state * alphabetSize + s;
+                int child = table[edge];
+                if (child < 0) {
+                    table[edge] = table[fail[state] * alphabetSize + s];
+                } else {
+                    fail[child] = table[fail[state] * alphabetSize + s];
+                    queue[tail++] = child;
+                }
+            }
+        }
+
+        transitions = Arrays.copyOf(table, states * alphabetSize);
+        outputs = new int[states][];
+        for (int state = 0; state < states; state++) {
+            outputs[state] = out[state] == null ? NO_OUTPUT : out[state];
+        }
+    }
+
+    /**
+     * Build the automaton
+     *
+     * @param terms Terms or phrases to find (matched case-insensitively)
+     * @param weights Weight of each term, added to the match score when it is found
+     */
+    public static KeywordAutomaton build(String[] terms, double[] weights) {
+        if (terms.length != weights.length) {
+            throw new IllegalArgumentException("Every keyword needs a weight");
+        }
+        return new KeywordAutomaton(terms.clone(), weights.clone());
+    }
+
+    /**
+     * Find every term that occurs in the text as a whole word
+     *
+     * @return The distinct matched terms in dictionary order and the sum of their
+     *         weights, or {@link #NO_MATCH}
+     */
+    public Match scan(CharSequence text) {
+        if (text == null) {
+            return NO_MATCH;
+        }
+
+        long[] found = null;
+        int state = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            state = transitions[state * alphabetSize + symbolOf(toLowerCase(text.charAt(i)))];
+            for (int id : outputs[state]) {
+                if (!isWordBefore(text, i + 1 - termLengths[id]) && !isWordAt(text, i + 1)) {
+                    if (found == null) {
+                        found = new long[(terms.length + 63) >>> 6];
+                    }
+                    found[id >>> 6] |= 1L << id;
+                }
+            }
+        }
+        return found == null ? NO_MATCH : toMatch(found);
+    }
+
+    public int size() {
+        return terms.length;
+    }
+
+    private Match toMatch(long[] found) {
+        List<String> matched = new ArrayList<>();
+        double score = 0;
+        for (int id = 0; id < terms.length; id++) {
+            if ((found[id >>> 6] & (1L << id)) != 0) {
+                matched.add(terms[id]);
+                score += weights[id];
+            }
+        }
+        return new Match(List.copyOf(matched), score);
+    }
+
+    private int symbolOf(char c) {
+        if (c < 128) {
+            return asciiSymbols[c];
+        }
+        int i = Arrays.binarySearch(otherChars, c);
+        return i < 0 ? 0 : otherSymbols[i];
+    }
+
+    /**
+     * Character.toLowerCase, except for the capital I with dot above: String.toLowerCase
+     * turns it into i and a combining dot, so it never stands for a plain i
+     */
+    private static char toLowerCase(char c) {
+        return c == '\u0130' ? c : Character.toLowerCase(c);
+    }
+
+    /**
+     * Whether the character before index is a word character, as the regex \b sees it
+     */
+    private static boolean isWordBefore(CharSequence text, int index) {
+        if (index == 0) {
+            return false;
+        }
+        int c = Character.codePointBefore(text, index);
+        return isWord(c) || (isMark(c) && hasBaseCharacter(text, index - 1));
+    }
+
+    /**
+     * Whether the character at index is a word character, as the regex \b sees it
+     */
+    private static boolean isWordAt(CharSequence text, int index) {
+        if (index == text.length()) {
+            return false;
+        }
+        int c = Character.codePointAt(text, index);
+        return isWord(c) || (isMark(c) && hasBaseCharacter(text, index));
+    }
+
+    private static boolean isWord(int c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static boolean isMark(int c) {
+        return Character.getType(c) == Character.NON_SPACING_MARK;
+    }
+
+    /**
+     * Whether the marks ending at index follow a letter or digit
+     */
+    private static boolean hasBaseCharacter(CharSequence text, int index) {
+        for (int i = index; i >= 0; i--) {
+            int c = Character.codePointAt(text, i);
+            if (Character.isLetterOrDigit(c)) {
+                return true;
+            }
+            if (!isMark(c)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static int[] append(int[] ids, int id) {
+        if (ids == null) {
+            return new int[] {id};
+        }
+        int[] result = Arrays.copyOf(ids, ids.length + 1);
+        result[ids.length] = id;
+        return result;
+    }
+
+    private static int[] merge(int[] own, int[] inherited) {
+        if (inherited == null || inherited.length == 0) {
+            return own;
+        }
+        if (own == null) {
+            return inherited;
+        }
+        int[] result = Arrays.copyOf(own, own.length + inherited.length);
+        System.arraycopy(inherited, 0, result, own.length, inherited.length);
+        return result;
+    }
+
+    /**
+     * Terms found in a text and their total weight
+     */
+    public record Match(List<String> terms, double score) {
+
+        public boolean isEmpty() {
+            return terms.isEmpty();
+        }
+    }
+}
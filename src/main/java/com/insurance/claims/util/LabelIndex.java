@@ -0,0 +1,189 @@
+package com.insurance.claims.util;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+
+/**
+ * Single-pass index of the FNOL label keywords that every field pattern in
+ * {@link RegexPatterns} starts with.
+ *
+ * The text is scanned once and the position of each keyword occurrence is recorded
+ * in document order. A field pattern can then only match at one of those positions,
+ * so it is tried with an anchored {@link Matcher#lookingAt()} there instead of
+ * running {@link Matcher#find()} over the whole document. The first successful
+ * position is the same leftmost match {@code find()} would have returned.
+ */
+public final class LabelIndex {
+
+    // Label keywords (lower case, ASCII only - the patterns are not UNICODE_CASE)
+    public static final int POLICY = 0;
+    public static final int EFFECTIVE = 1;
+    public static final int INCIDENT = 2;
+    public static final int LOSS = 3;
+    public static final int ACCIDENT = 4;
+    public static final int LOCATION = 5;
+    public static final int DESCRIPTION = 6;
+    public static final int CLAIM = 7;
+    public static final int CONTACT = 8;
+    public static final int ASSET = 9;
+    public static final int ESTIMATED = 10;
+    public static final int INITIAL = 11;
+    public static final int ATTACHMENT = 12;
+
+    private static final char[][] KEYWORDS = {
+        "policy".toCharArray(),
+        "effective".toCharArray(),
+        "incident".toCharArray(),
+        "loss".toCharArray(),
+        "accident".toCharArray(),
+        "location".toCharArray(),
+        "description".toCharArray(),
+        "claim".toCharArray(),
+        "contact".toCharArray(),
+        "asset".toCharArray(),
+        "estimated".toCharArray(),
+        "initial".toCharArray(),
+        "attachment".toCharArray()
+    };
+
+    // Keyword ids grouped by their first letter, so each text position costs one lookup
+    private static final int[][] KEYWORDS_BY_FIRST_CHAR = new int[26][];
+
+    static {
+        for (int c = 0; c < 26; c++) {
+            KEYWORDS_BY_FIRST_CHAR[c] = new int[0];
+        }
+        for (int id = 0; id < KEYWORDS.length; id++) {
+            int c = KEYWORDS[id][0] - 'a';
+            int[] ids = KEYWORDS_BY_FIRST_CHAR[c];
+            ids = Arrays.copyOf(ids, ids.length + 1);
+            ids[ids.length - 1] = id;
+            KEYWORDS_BY_FIRST_CHAR[c] = ids;
+        }
+    }
+
+    private final CharSequence text;
+    private int[] positions = new int[32];
+    private int[] keywords = new int[32];
+    private int size;
+
+    private LabelIndex(CharSequence text) {
+        this.text = text;
+    }
+
+    /**
+     * Scan the text once and record every label keyword occurrence
+     */
+    public static LabelIndex scan(CharSequence text) {
+        LabelIndex index = new LabelIndex(text);
+        int length = text.length();
+
+        for (int i = 0; i < length; i++) {
+            int c = toLowerAscii(text.charAt(i)) - 'a';
+            if (c < 0 || c >= 26) {
+                continue;
+            }
+            for (int id : KEYWORDS_BY_FIRST_CHAR[c]) {
+                if (regionMatches(text, i, KEYWORDS[id])) {
+                    index.add(i, id);
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Find the leftmost match of the matcher's pattern that starts at one of the
+     * given keywords. On success the matcher holds the match state.
+     *
+     * @param matcher Matcher created for this index's text
+     * @param keywordIds Keywords the pattern can start with
+     * @return true if a match was found
+     */
+    public boolean find(Matcher matcher, int... keywordIds) {
+        matcher.useTransparentBounds(true);
+        matcher.useAnchoringBounds(false);
+        int length = text.length();
+
+        for (int i = 0; i < size; i++) {
+            if (!contains(keywordIds, keywords[i])) {
+                continue;
+            }
+            matcher.region(positions[i], length);
+            if (matcher.lookingAt()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Like {@link #find}, but only succeeds if text appended to this index's text
+     * could not change the result. That holds when neither the match nor any failed
+     * attempt at an earlier keyword read up to the end of the text
+     * ({@link Matcher#hitEnd()}): a match running into the end could grow (greedy
+     * values, continuation lines, {@code $} lookaheads), and an attempt that failed
+     * at the end could still succeed.
+     *
+     * @return true if a match was found that is final
+     */
+    public boolean findSettled(Matcher matcher, int... keywordIds) {
+        matcher.useTransparentBounds(true);
+        matcher.useAnchoringBounds(false);
+        int length = text.length();
+
+        for (int i = 0; i < size; i++) {
+            if (!contains(keywordIds, keywords[i])) {
+                continue;
+            }
+            matcher.region(positions[i], length);
+            boolean found = matcher.lookingAt();
+            if (matcher.hitEnd()) {
+                return false;
+            }
+            if (found) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public CharSequence getText() {
+        return text;
+    }
+
+    private void add(int position, int keywordId) {
+        if (size == positions.length) {
+            positions = Arrays.copyOf(positions, size * 2);
+            keywords = Arrays.copyOf(keywords, size * 2);
+        }
+        positions[size] = position;
+        keywords[size] = keywordId;
+        size++;
+    }
+
+    private static boolean contains(int[] ids, int id) {
+        for (int candidate : ids) {
+            if (candidate == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean regionMatches(CharSequence text, int offset, char[] keyword) {
+        if (offset + keyword.length > text.length()) {
+            return false;
+        }
+        for (int k = 1; k < keyword.length; k++) {
+            if (toLowerAscii(text.charAt(offset + k)) != keyword[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char toLowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
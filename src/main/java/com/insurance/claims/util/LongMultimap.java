@@ -0,0 +1,85 @@
+package com.insurance.claims.util;
+
+/**
+ * Open-addressing hash multimap from long keys to long values, without boxing.
+ *
+ * Entries are only ever added; the map is dropped as a whole when it is no longer needed.
+ * A key can hold several values, stored in separate slots along its linear probe
+ * sequence. Key 0 marks an empty slot, so it is stored as 1.
+ */
+public final class LongMultimap {
+
+    private static final long EMPTY = 0;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+
+    public LongMultimap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    public void put(long key, long value) {
+        if (size * 2 >= keys.length) {
+            resize();
+        }
+        key = key == EMPTY ? 1 : key;
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    /**
+     * Find a value of the key within [min, max]
+     *
+     * @return The first such value found, or {@code Long.MIN_VALUE} if there is none
+     */
+    public long findInRange(long key, long min, long max) {
+        key = key == EMPTY ? 1 : key;
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key && values[slot] >= min && values[slot] <= max) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return Long.MIN_VALUE;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new long[oldValues.length * 2];
+        mask = keys.length - 1;
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private int slot(long key) {
+        // Murmur3 finalizer spreads the key hash over the low bits used as slot index
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb53fe1a85ec3L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+}
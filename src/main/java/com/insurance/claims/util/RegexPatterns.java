@@ -86,11 +86,5 @@ public class RegexPatterns {
         "(?i)attachments?\\s*:?\\s*([^\\n]+)",
         Pattern.CASE_INSENSITIVE
     );
-    
-    // Fraud Detection Keywords
-    public static final Pattern FRAUD_KEYWORDS = Pattern.compile(
-        "(?i)\\b(fraud|fraudulent|inconsistent|staged|suspicious|fake|fabricated)\\b",
-        Pattern.CASE_INSENSITIVE
-    );
 }
 
@@ -0,0 +1,15 @@
+-- Processed claims. The indexed columns are copies of fields in claim_json, which holds the full Claim.
+CREATE TABLE IF NOT EXISTS claims (
+    claim_id          VARCHAR(36)  NOT NULL PRIMARY KEY,
+    policy_number     VARCHAR(255),
+    incident_date     DATE,
+    recommended_route VARCHAR(255) NOT NULL,
+    routing_rule      VARCHAR(255),
+    processed_at      TIMESTAMP WITH TIME ZONE NOT NULL,
+    claim_json        CLOB         NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_claims_policy_number ON claims (policy_number, processed_at);
+CREATE INDEX IF NOT EXISTS idx_claims_incident_date ON claims (incident_date, processed_at);
+CREATE INDEX IF NOT EXISTS idx_claims_route ON claims (recommended_route, processed_at);
+CREATE INDEX IF NOT EXISTS idx_claims_processed_at ON claims (processed_at);
@@ -0,0 +1,153 @@
+package com.insurance.claims.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Waiting requests are admitted in arrival order, per file type and for the byte budget
+ */
+class AdmissionControlServiceTest {
+
+    private final AdmissionControlService admissionControlService = new AdmissionControlService();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @BeforeEach
+    void configure() {
+        ClaimMetricsService metricsService = new ClaimMetricsService();
+        ReflectionTestUtils.setField(metricsService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(admissionControlService, "metricsService", metricsService);
+        ReflectionTestUtils.setField(admissionControlService, "maxConcurrentPdf", 1);
+        ReflectionTestUtils.setField(admissionControlService, "maxConcurrentTxt", 10);
+        ReflectionTestUtils.setField(admissionControlService, "maxInFlightBytes", DataSize.ofBytes(100));
+        ReflectionTestUtils.setField(admissionControlService, "maxQueued", 10);
+        ReflectionTestUtils.setField(admissionControlService, "maxWait", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(admissionControlService, "retryAfter", Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void shutDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void largeDocumentIsNotOvertakenBySmallOnes() throws Exception {
+        AdmissionControlService.Permit first = admissionControlService.acquire("first.txt", 60);
+        CompletableFuture<AdmissionControlService.Permit> large = acquireAsync("large.txt", 80);
+        awaitQueued(1);
+        // Would fit next to the first document, but arrived after the large one
+        CompletableFuture<AdmissionControlService.Permit> small = acquireAsync("small.txt", 30);
+        awaitQueued(2);
+
+        assertFalse(small.isDone());
+
+        first.close();
+        AdmissionControlService.Permit largePermit = large.get(5, TimeUnit.SECONDS);
+        // 80 + 30 bytes exceed the budget, so the small document keeps waiting
+        assertEquals(1, queued());
+        assertFalse(small.isDone());
+
+        largePermit.close();
+        small.get(5, TimeUnit.SECONDS).close();
+        assertEquals(0, queued());
+    }
+
+    @Test
+    void smallDocumentWaitsBehindLargeOneUntilItIsAdmitted() throws Exception {
+        AdmissionControlService.Permit first = admissionControlService.acquire("first.txt", 60);
+        CompletableFuture<AdmissionControlService.Permit> large = acquireAsync("large.txt", 80);
+        awaitQueued(1);
+        CompletableFuture<AdmissionControlService.Permit> small = acquireAsync("small.txt", 10);
+        awaitQueued(2);
+
+        first.close();
+        AdmissionControlService.Permit largePermit = large.get(5, TimeUnit.SECONDS);
+        // 80 + 10 bytes fit, so the small document follows straight away
+        small.get(5, TimeUnit.SECONDS).close();
+        largePermit.close();
+    }
+
+    @Test
+    void otherFileTypeIsNotHeldBack() throws Exception {
+        AdmissionControlService.Permit pdf = admissionControlService.acquire("first.pdf", 10);
+        CompletableFuture<AdmissionControlService.Permit> queuedPdf = acquireAsync("second.pdf", 10);
+        awaitQueued(1);
+
+        // The waiting PDF is short of a PDF slot, not of bytes
+        admissionControlService.acquire("claim.txt", 10).close();
+        assertFalse(queuedPdf.isDone());
+
+        pdf.close();
+        queuedPdf.get(5, TimeUnit.SECONDS).close();
+    }
+
+    @Test
+    void timedOutWaiterNoLongerHoldsBackLaterOnes() throws Exception {
+        ReflectionTestUtils.setField(admissionControlService, "maxWait", Duration.ofMillis(500));
+        AdmissionControlService.Permit first = admissionControlService.acquire("first.txt", 60);
+        CompletableFuture<AdmissionControlService.Permit> large = acquireAsync("large.txt", 80);
+        awaitQueued(1);
+        Thread.sleep(250);
+        CompletableFuture<AdmissionControlService.Permit> small = acquireAsync("small.txt", 30);
+
+        ExecutionException timedOut = assertThrows(ExecutionException.class, () -> large.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(AdmissionControlService.RejectedException.class, timedOut.getCause());
+        // Admitted when the large document gave up, before its own wait ran out
+        small.get(5, TimeUnit.SECONDS).close();
+        first.close();
+    }
+
+    @Test
+    void fullQueueIsRejected() throws Exception {
+        ReflectionTestUtils.setField(admissionControlService, "maxQueued", 1);
+        AdmissionControlService.Permit first = admissionControlService.acquire("first.pdf", 10);
+        CompletableFuture<AdmissionControlService.Permit> queuedPdf = acquireAsync("second.pdf", 10);
+        awaitQueued(1);
+
+        assertThrows(AdmissionControlService.RejectedException.class,
+                () -> admissionControlService.acquire("third.pdf", 10));
+
+        first.close();
+        queuedPdf.get(5, TimeUnit.SECONDS).close();
+    }
+
+    private CompletableFuture<AdmissionControlService.Permit> acquireAsync(String filename, long size) {
+        return CompletableFuture.supplyAsync(() -> admissionControlService.acquire(filename, size), executor);
+    }
+
+    private void awaitQueued(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (queued() != expected) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for " + expected + " queued requests");
+            Thread.sleep(5);
+        }
+    }
+
+    private int queued() {
+        ReentrantLock lock = (ReentrantLock) ReflectionTestUtils.getField(admissionControlService, "lock");
+        lock.lock();
+        try {
+            return ((Deque<?>) ReflectionTestUtils.getField(admissionControlService, "waiters")).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
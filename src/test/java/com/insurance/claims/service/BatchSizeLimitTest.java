@@ -0,0 +1,77 @@
+package com.insurance.claims.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A batch over claims.batch.max-documents is rejected before any document is submitted
+ */
+class BatchSizeLimitTest {
+
+    private final ClaimProcessingService claimProcessingService = new ClaimProcessingService();
+    private final AtomicInteger submitted = new AtomicInteger();
+
+    @BeforeEach
+    void configure() {
+        // Counts submissions without running them
+        ReflectionTestUtils.setField(claimProcessingService, "pipelineExecutor",
+                new TaskExecutorAdapter(task -> submitted.incrementAndGet()));
+        ReflectionTestUtils.setField(claimProcessingService, "maxDocumentSize", DataSize.ofMegabytes(10));
+        ReflectionTestUtils.setField(claimProcessingService, "maxBatchDocuments", 3);
+    }
+
+    @Test
+    void archiveEntriesOverTheLimitRejectBatchUpFront() throws IOException {
+        List<MultipartFile> files = List.of(
+                document("first.txt"),
+                document("second.txt"),
+                archive("claims.zip", "third.txt", "fourth.txt"));
+
+        assertThrows(IllegalArgumentException.class, () -> claimProcessingService.processBatch(files));
+        assertEquals(0, submitted.get());
+    }
+
+    @Test
+    void documentsOverTheLimitRejectBatchUpFront() {
+        List<MultipartFile> files = List.of(
+                archive("claims.zip", "first.txt", "second.txt", "third.txt"),
+                document("fourth.txt"));
+
+        assertThrows(IllegalArgumentException.class, () -> claimProcessingService.processBatch(files));
+        assertEquals(0, submitted.get());
+    }
+
+    private static MockMultipartFile document(String filename) {
+        return new MockMultipartFile("files", filename, "text/plain", "FNOL".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MockMultipartFile archive(String filename, String... entries) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry("claims/"));
+            for (String entry : entries) {
+                zip.putNextEntry(new ZipEntry("claims/" + entry));
+                zip.write("FNOL".getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return new MockMultipartFile("files", filename, "application/zip", bytes.toByteArray());
+    }
+}
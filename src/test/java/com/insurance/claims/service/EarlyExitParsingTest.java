@@ -0,0 +1,140 @@
+package com.insurance.claims.service;
+
+import com.insurance.claims.dto.ExtractedFields;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Early-exit PDF parsing must extract the same fields as parsing every page
+ */
+class EarlyExitParsingTest {
+
+    private static final List<String> HEADER = List.of(
+        "FIRST NOTICE OF LOSS (FNOL)",
+        "Policy Number: POL-2025-004455",
+        "Policyholder Name: Ravi Kumar",
+        "Effective Date: 01/01/2025 to 01/01/2026",
+        "Incident Date: 03/14/2025",
+        "Incident Time: 10:45 AM",
+        "Location: Banjara Hills Road No 12, Hyderabad",
+        "Claimant Name: Ravi Kumar",
+        "Contact Details: Phone: 9876501234",
+        "Asset Type: Vehicle",
+        "Asset ID: TS07AB1234",
+        "Estimated Damage: $18,500.00",
+        "Claim Type: property",
+        "Initial Estimate: $18,500.00",
+        "Attachments: photos_rear.jpg, police_report.pdf"
+    );
+
+    private static final List<String> FILLER = List.of(
+        "Report: Police report continuation",
+        "Remarks: Road surface was dry and visibility was good at the time of the incident."
+    );
+
+    private final FieldExtractionService fieldExtractionService = new FieldExtractionService();
+    private final DocumentParserService documentParserService = new DocumentParserService();
+
+    @BeforeEach
+    void enableEarlyExit() {
+        ReflectionTestUtils.setField(documentParserService, "parallelEnabled", false);
+        ReflectionTestUtils.setField(documentParserService, "earlyExitEnabled", true);
+        ReflectionTestUtils.setField(documentParserService, "earlyExitMaxPages", 10);
+    }
+
+    @Test
+    void descriptionContinuedOnNextPageIsNotTruncated() throws IOException {
+        List<String> first = new ArrayList<>(HEADER);
+        first.add("Description: Vehicle was rear-ended while waiting at a signal.");
+        List<String> second = new ArrayList<>(List.of("Boot lid and bumper damaged, tail lamp broken."));
+        second.addAll(FILLER);
+
+        ExtractedFields fields = assertSameFields(pdf(first, second, FILLER, FILLER));
+        assertEquals("Vehicle was rear-ended while waiting at a signal.\n"
+                + "Boot lid and bumper damaged, tail lamp broken.", fields.getDescription());
+    }
+
+    @Test
+    void descriptionContinuedOverSeveralPagesIsNotTruncated() throws IOException {
+        List<String> first = new ArrayList<>(HEADER);
+        first.add("Description: Vehicle was rear-ended");
+        List<String> second = List.of("while waiting at a signal.");
+        List<String> third = List.of("Boot lid and bumper damaged.", "Remarks: none");
+
+        ExtractedFields fields = assertSameFields(pdf(first, second, third, FILLER));
+        assertEquals("Vehicle was rear-ended\nwhile waiting at a signal.\nBoot lid and bumper damaged.",
+                fields.getDescription());
+    }
+
+    @Test
+    void valueStartingOnNextPageIsFound() throws IOException {
+        List<String> first = new ArrayList<>(HEADER.subList(0, HEADER.size() - 1));
+        first.add("Description: Vehicle was rear-ended while waiting at a signal.");
+        first.add("Notes: see attached report");
+        first.add("Attachments:");
+        List<String> second = List.of("photos_rear.jpg, police_report.pdf");
+
+        assertSameFields(pdf(first, second, FILLER));
+    }
+
+    @Test
+    void stopsAfterFirstPageWhenItsFieldsAreFinal() throws IOException {
+        List<String> first = new ArrayList<>(HEADER);
+        first.add(6, "Description: Vehicle was rear-ended while waiting at a signal.");
+
+        byte[] pdf = pdf(first, FILLER, FILLER, FILLER);
+        String early = documentParserService.parseDocument("claim.pdf", pdf, fieldExtractionService::isComplete).getText();
+        String full = documentParserService.parseDocument("claim.pdf", pdf, null).getText();
+
+        assertTrue(early.length() < full.length(), "early exit should not strip every page");
+        assertEquals(fieldExtractionService.extractFields(full), fieldExtractionService.extractFields(early));
+    }
+
+    private ExtractedFields assertSameFields(byte[] pdf) throws IOException {
+        String early = documentParserService.parseDocument("claim.pdf", pdf, fieldExtractionService::isComplete).getText();
+        String full = documentParserService.parseDocument("claim.pdf", pdf, null).getText();
+
+        ExtractedFields expected = fieldExtractionService.extractFields(full);
+        assertEquals(expected, fieldExtractionService.extractFields(early));
+        return expected;
+    }
+
+    @SafeVarargs
+    private static byte[] pdf(List<String>... pages) throws IOException {
+        try (PDDocument document = new PDDocument();
+             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            for (List<String> lines : pages) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(font, 10);
+                    content.setLeading(14);
+                    content.newLineAtOffset(50, 740);
+                    for (String line : lines) {
+                        content.showText(line);
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.insurance.claims.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * FieldValueParser must return what the DateTimeFormatter and BigDecimal parsing it
+ * replaced returned, for every value shape RegexPatterns can capture
+ */
+class FieldValueParserTest {
+
+    // The formatters FieldExtractionService used, in the order it tried them
+    private static final DateTimeFormatter[] DATE_FORMATTERS = {
+        DateTimeFormatter.ofPattern("MM/dd/yyyy"),
+        DateTimeFormatter.ofPattern("MM-dd-yyyy"),
+        DateTimeFormatter.ofPattern("M/d/yyyy"),
+        DateTimeFormatter.ofPattern("M-d-yyyy"),
+        DateTimeFormatter.ofPattern("MM/dd/yy"),
+        DateTimeFormatter.ofPattern("MM-dd-yy")
+    };
+
+    private static final DateTimeFormatter[] TIME_FORMATTERS = {
+        DateTimeFormatter.ofPattern("HH:mm", Locale.US),
+        DateTimeFormatter.ofPattern("h:mm a", Locale.US),
+        DateTimeFormatter.ofPattern("h:mma", Locale.US)
+    };
+
+    @Test
+    void datesMatchFormatters() {
+        List<String> months = numbers(0, 13);
+        months.add("99");
+        List<String> days = numbers(0, 32);
+        days.add("99");
+        List<String> years = List.of("00", "01", "04", "23", "24", "99",
+                "0000", "0001", "0099", "1900", "1999", "2000", "2023", "2024", "2100", "2400", "9999");
+
+        int checked = 0;
+        for (String month : months) {
+            for (String day : days) {
+                for (String year : years) {
+                    for (String separators : List.of("//", "--", "/-", "-/")) {
+                        String date = month + separators.charAt(0) + day + separators.charAt(1) + year;
+                        assertDate(date);
+                        checked++;
+                    }
+                }
+            }
+        }
+        assertTrue(checked > 50_000);
+    }
+
+    @Test
+    void dateEdgeCasesMatchFormatters() {
+        for (String date : List.of("02/29/2024", "02/29/2023", "02/30/2024", "2/31/2023", "04/31/2025", "4-31-2025",
+                "02/29/00", "02/29/01", "12/31/9999", "1/1/0001", "00/10/2024", "13/01/2024", "01/00/2024",
+                "1/2/24", "01/2/24", "01/02/024", "01/02/20245", "+1/02/2024", "01/+2/2024", "01/02/+2024",
+                "-1/02/2024", "01/02/-2024", " 01/02/2024", "01/02/2024 ", "01/02", "", "/", "01//2024")) {
+            assertDate(date);
+        }
+    }
+
+    @Test
+    void timesMatchFormatters() {
+        List<String> hours = numbers(0, 25);
+        hours.add("99");
+        List<String> markers = List.of("", "AM", "PM", "am", "pm", "Am", "pM", " AM", " pm", "  AM", "\tPM",
+                "\nAM", " ", "A", " XM");
+
+        int checked = 0;
+        for (String hour : hours) {
+            for (int minute = 0; minute < 100; minute++) {
+                for (String marker : markers) {
+                    assertTime(hour + ":" + String.format("%02d", minute) + marker);
+                    checked++;
+                }
+            }
+        }
+        assertTrue(checked > 50_000);
+    }
+
+    @Test
+    void timeEdgeCasesMatchFormatters() {
+        for (String time : List.of("24:00", "24:01", "00:00", "0:00", "0:00 AM", "12:00 AM", "12:00 PM", "13:00 PM",
+                "00:00 PM", "9:5", "9:005", "+9:00", "-9:00", "09:+0", "9:00 +M", ":00", "9:", "", "12:60")) {
+            assertTime(time);
+        }
+    }
+
+    @Test
+    void amountsMatchBigDecimal() {
+        char[] alphabet = {'0', '1', '9', ',', '.', '+', '-', 'e', 'E', ' '};
+        int checked = 0;
+        for (int length = 0; length <= 5; length++) {
+            int combinations = (int) Math.pow(alphabet.length, length);
+            char[] amount = new char[length];
+            for (int n = 0; n < combinations; n++) {
+                int rest = n;
+                for (int i = 0; i < length; i++) {
+                    amount[i] = alphabet[rest % alphabet.length];
+                    rest /= alphabet.length;
+                }
+                assertAmount(new String(amount));
+                checked++;
+            }
+        }
+        assertTrue(checked > 100_000);
+    }
+
+    @Test
+    void amountEdgeCasesMatchBigDecimal() {
+        for (String amount : List.of("18,500.00", "1,2,3", ",,1,,", "1,000,000.5", "+12,000", "-12,000.00", "+-1",
+                "1e3", "1E+3", "1.5e-2", "1,0e1", "0e0", ".5", "5.", ".", ",", "1.2.3", "0.00", "000123.40",
+                "999999999999999999", "9999999999999999999", "123456789012345678.9", "1234567890123456789.01",
+                "0000000000000000000000001.25", "12,345,678,901,234,567,890.12", "١٢٣", "1 000")) {
+            assertAmount(amount);
+        }
+    }
+
+    private static void assertDate(String date) {
+        LocalDate expected = null;
+        for (DateTimeFormatter formatter : DATE_FORMATTERS) {
+            try {
+                expected = LocalDate.parse(date, formatter);
+                break;
+            } catch (DateTimeParseException e) {
+                // Try next formatter
+            }
+        }
+        assertEquals(expected, FieldValueParser.parseDate(date, 0, date.length()), date);
+
+        int epochDay = FieldValueParser.parseEpochDay(date, 0, date.length());
+        assertEquals(expected == null ? FieldValueParser.INVALID : expected.toEpochDay(), epochDay, date);
+    }
+
+    private static void assertTime(String time) {
+        LocalTime expected = null;
+        for (DateTimeFormatter formatter : TIME_FORMATTERS) {
+            try {
+                expected = LocalTime.parse(time.toUpperCase(Locale.ROOT), formatter);
+                break;
+            } catch (DateTimeParseException e) {
+                // Try next formatter
+            }
+        }
+        assertEquals(expected, FieldValueParser.parseTime(time, 0, time.length()), time);
+
+        int minuteOfDay = FieldValueParser.parseMinuteOfDay(time, 0, time.length());
+        assertEquals(expected == null ? FieldValueParser.INVALID : expected.toSecondOfDay() / 60, minuteOfDay, time);
+    }
+
+    private static void assertAmount(String amount) {
+        Object expected;
+        try {
+            expected = new BigDecimal(amount.replace(",", ""));
+        } catch (NumberFormatException e) {
+            expected = NumberFormatException.class;
+        }
+
+        Object actual;
+        try {
+            actual = FieldValueParser.parseAmount(amount, 0, amount.length());
+        } catch (NumberFormatException e) {
+            actual = NumberFormatException.class;
+        }
+        // BigDecimal.equals also compares the scale
+        assertEquals(expected, actual, amount);
+
+        long unscaled = FieldValueParser.parseUnscaledAmount(amount, 0, amount.length());
+        if (unscaled != FieldValueParser.UNSUPPORTED_AMOUNT) {
+            BigDecimal value = BigDecimal.valueOf(unscaled, FieldValueParser.amountScale(amount, 0, amount.length()));
+            if (!Objects.equals(expected, value)) {
+                fail("Unscaled amount " + value + " differs from " + expected + " for '" + amount + "'");
+            }
+        }
+    }
+
+    /**
+     * Every number from min to max with one or two digits, e.g. "2" and "02"
+     */
+    private static List<String> numbers(int min, int max) {
+        List<String> numbers = new ArrayList<>();
+        for (int n = min; n <= max; n++) {
+            if (n < 10) {
+                numbers.add(String.valueOf(n));
+            }
+            numbers.add(String.format("%02d", n));
+        }
+        return numbers;
+    }
+}
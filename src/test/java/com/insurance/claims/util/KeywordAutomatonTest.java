@@ -0,0 +1,110 @@
+package com.insurance.claims.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * KeywordAutomaton must find the terms the regex it replaced found: a whole-word
+ * {@code \b} match in the lower-cased description
+ */
+class KeywordAutomatonTest {
+
+    // The keyword pattern RoutingService used before the automaton
+    private static final Pattern FRAUD_KEYWORDS = Pattern.compile(
+        "(?i)\\b(fraud|fraudulent|inconsistent|staged|suspicious|fake|fabricated)\\b",
+        Pattern.CASE_INSENSITIVE
+    );
+
+    private static final String[] DEFAULT_TERMS = {
+        "fraud", "fraudulent", "inconsistent", "staged", "suspicious", "fake", "fabricated"
+    };
+
+    private static final String[] TERMS = {
+        "fraud", "fraudulent", "inconsistent", "staged", "suspicious", "fake", "fabricated",
+        "staged accident", "no witness", "Cash Only", "a_b", "x-ray"
+    };
+
+    // Terms, near misses, word and non-word characters, and characters where lower-casing or \b need care
+    private static final String[] FRAGMENTS = {
+        "fraud", "FRAUD", "Fraudulent", "frauds", "defraud", "staged", "stage", "staged accident", "STAGED  ACCIDENT",
+        "no witness", "No Witness", "cash only", "fake", "fa\u212Ae", "FA\u212AE", "fabricated", "suspicious",
+        "inconsistent", "İnconsistent", "INCONSİSTENT", "ınconsistent", "a_b", "x-ray", "X-RAY",
+        " ", "  ", ".", ",", "-", "_", "'", "\n", "0", "7", "a", "é", "ß", "Σ", "ς",
+        "\u0301", "\u0307", "İ", "ı", "\uD835\uDC00", "\uD834\uDD67", "\uD835", "\uDC00", "\u200B", "\u00A0"
+    };
+
+    @Test
+    void defaultKeywordsMatchOldPattern() {
+        KeywordAutomaton automaton = KeywordAutomaton.build(DEFAULT_TERMS, weights(DEFAULT_TERMS));
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            String text = generate(random);
+            assertEquals(FRAUD_KEYWORDS.matcher(text.toLowerCase(Locale.ROOT)).find(),
+                    !automaton.scan(text).isEmpty(), () -> describe(text));
+        }
+    }
+
+    @Test
+    void termsMatchWholeWordRegex() {
+        KeywordAutomaton automaton = KeywordAutomaton.build(TERMS, weights(TERMS));
+        List<Pattern> patterns = new ArrayList<>();
+        for (String term : TERMS) {
+            patterns.add(Pattern.compile("(?i)\\b" + Pattern.quote(term.toLowerCase(Locale.ROOT)) + "\\b"));
+        }
+        Random random = new Random(7);
+
+        for (int i = 0; i < 100_000; i++) {
+            String text = generate(random);
+            String lowerCase = text.toLowerCase(Locale.ROOT);
+            List<String> expected = new ArrayList<>();
+            double score = 0;
+            for (int id = 0; id < TERMS.length; id++) {
+                if (patterns.get(id).matcher(lowerCase).find()) {
+                    expected.add(TERMS[id]);
+                    score += id + 1;
+                }
+            }
+
+            KeywordAutomaton.Match match = automaton.scan(text);
+            assertEquals(expected, match.terms(), () -> describe(text));
+            assertEquals(score, match.score(), () -> describe(text));
+        }
+    }
+
+    private static String generate(Random random) {
+        StringBuilder text = new StringBuilder();
+        int fragments = random.nextInt(8);
+        for (int i = 0; i < fragments; i++) {
+            text.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Term weights 1, 2, 3, ... so every set of terms has a distinct score
+     */
+    private static double[] weights(String[] terms) {
+        double[] weights = new double[terms.length];
+        for (int id = 0; id < terms.length; id++) {
+            weights[id] = id + 1;
+        }
+        return weights;
+    }
+
+    private static String describe(String text) {
+        StringBuilder escaped = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            escaped.append(c >= 0x20 && c < 0x7f ? String.valueOf(c) : String.format("\\u%04X", (int) c));
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,117 @@
+package com.insurance.claims.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * LabelIndex.find must return the same match as Matcher.find over the whole text
+ * for every field pattern, given the keywords FieldExtractionService passes with it
+ */
+class LabelIndexTest {
+
+    private record FieldLabel(Pattern pattern, int... keywordIds) {
+    }
+
+    private static final List<FieldLabel> FIELD_LABELS = List.of(
+        new FieldLabel(RegexPatterns.POLICY_NUMBER, LabelIndex.POLICY),
+        new FieldLabel(RegexPatterns.POLICYHOLDER_NAME, LabelIndex.POLICY),
+        new FieldLabel(RegexPatterns.EFFECTIVE_DATES, LabelIndex.EFFECTIVE),
+        new FieldLabel(RegexPatterns.INCIDENT_DATE, LabelIndex.INCIDENT, LabelIndex.LOSS, LabelIndex.ACCIDENT),
+        new FieldLabel(RegexPatterns.INCIDENT_TIME, LabelIndex.INCIDENT, LabelIndex.LOSS, LabelIndex.ACCIDENT),
+        new FieldLabel(RegexPatterns.LOCATION, LabelIndex.LOCATION),
+        new FieldLabel(RegexPatterns.DESCRIPTION, LabelIndex.DESCRIPTION),
+        new FieldLabel(RegexPatterns.CLAIMANT_NAME, LabelIndex.CLAIM),
+        new FieldLabel(RegexPatterns.CONTACT_DETAILS, LabelIndex.CONTACT),
+        new FieldLabel(RegexPatterns.ASSET_TYPE, LabelIndex.ASSET),
+        new FieldLabel(RegexPatterns.ASSET_ID, LabelIndex.ASSET),
+        new FieldLabel(RegexPatterns.ESTIMATED_DAMAGE, LabelIndex.ESTIMATED),
+        new FieldLabel(RegexPatterns.CLAIM_TYPE, LabelIndex.CLAIM),
+        new FieldLabel(RegexPatterns.INITIAL_ESTIMATE, LabelIndex.INITIAL),
+        new FieldLabel(RegexPatterns.ATTACHMENTS, LabelIndex.ATTACHMENT)
+    );
+
+    // Labels in several spellings, values, separators and characters that only fold to ASCII outside the patterns
+    private static final String[] FRAGMENTS = {
+        "Policy Number: ", "POLICY NO. ", "policy # ", "Policyholder Name: ", "Policyholder ", "Policy",
+        "Effective Date: ", "Effective Period: 01/02/2024 to 2/3/25", "effective 01-02-2024 - 03-04-2025",
+        "Incident Date: ", "Loss date 3/4/2024", "Accident Date: 13/45/2024", "Incident Time: ", "9:15 pm", "09:15",
+        "Location: ", "Relocation", "Description: ", "Incident Description: ", "Claimant Name: ", "Claim Type: ",
+        "claimant ", "Contact Details: ", "Contact", "Third", "Asset Type: ", "Asset ID: ", "Asset identifier ",
+        "Estimated Damage: $", "Initial Estimate: ", "Attachments: ", "Attachment: a.pdf; b.jpg",
+        "\n", "\n\n", " ", "\t", ":", "12,000.50", "ABC-123", "John Smith", ",", "02/29/2023", "injury",
+        "ı", "İ", "\u212A", "ſ", "LOSS", "DESCRIPTION", "Staged"
+    };
+
+    @Test
+    void sampleDocumentsMatchFind() throws IOException {
+        List<String> documents = sampleDocuments();
+        for (String document : documents) {
+            assertSameMatches(document);
+        }
+    }
+
+    @Test
+    void generatedDocumentsMatchFind() throws IOException {
+        List<String> documents = sampleDocuments();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            String text;
+            if (i % 3 == 0) {
+                // A sample document with a fragment inserted anywhere
+                String document = documents.get(random.nextInt(documents.size()));
+                int cut = random.nextInt(document.length() + 1);
+                text = document.substring(0, cut) + FRAGMENTS[random.nextInt(FRAGMENTS.length)] + document.substring(cut);
+            } else {
+                StringBuilder builder = new StringBuilder();
+                int fragments = random.nextInt(30);
+                for (int j = 0; j < fragments; j++) {
+                    builder.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+                }
+                text = builder.toString();
+            }
+            assertSameMatches(text);
+        }
+    }
+
+    private static void assertSameMatches(String text) {
+        LabelIndex labels = LabelIndex.scan(text);
+        for (FieldLabel field : FIELD_LABELS) {
+            Matcher expected = field.pattern().matcher(text);
+            Matcher actual = field.pattern().matcher(text);
+            boolean found = expected.find();
+
+            String message = field.pattern() + " in:\n" + text;
+            assertEquals(found, labels.find(actual, field.keywordIds()), message);
+            if (found) {
+                // The match may start earlier with find (DESCRIPTION's optional "incident" prefix), but ends alike
+                assertEquals(expected.end(), actual.end(), message);
+                for (int group = 1; group <= expected.groupCount(); group++) {
+                    assertEquals(expected.group(group), actual.group(group), message);
+                }
+            }
+        }
+    }
+
+    private static List<String> sampleDocuments() throws IOException {
+        List<String> documents = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Path.of("sample-documents"), "*.txt")) {
+            for (Path file : files) {
+                documents.add(Files.readString(file));
+            }
+        }
+        documents.sort(null);
+        return documents;
+    }
+}